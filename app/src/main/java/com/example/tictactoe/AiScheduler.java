@@ -0,0 +1,258 @@
+package com.example.tictactoe;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Runs the move searches of many concurrent games on a fixed pool of worker threads, so total CPU
+ * use stays bounded however many boards are being played.
+ *
+ * Every search gets a time budget when it is submitted, which sets its deadline. Waiting searches
+ * are run earliest deadline first. A running search is preempted cooperatively: once it has used
+ * up its time slice and a search with an earlier deadline is waiting, it stops at its next check,
+ * goes back in the queue and later resumes from the iteration it was in. A search that reaches
+ * its deadline is finished with the best move of its deepest completed iteration, or a quick
+ * fallback move if not even the first one finished. That way one long N by N search can't hold up
+ * the quick 3 by 3 games sharing the workers.
+ *
+ * A search that throws, errors like StackOverflowError included, is finished with its fallback
+ * move as well, so its game still gets a move and the worker lives on. The throwable is kept in
+ * the ticket, as is one thrown by the callback.
+ */
+public class AiScheduler {
+    /**
+     * Receives the chosen move. Called on a worker thread, so Android callers have to post the
+     * result to the main thread themselves. The move is GameEngine.NO_MOVE if the game is over, or
+     * if the search threw and not even its fallback move could be found.
+     */
+    public interface Callback {
+        void onMoveReady(int move);
+    }
+
+    public static final long DEFAULT_SLICE_MILLIS = 20;
+
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private static AiScheduler sShared;
+
+    // Earliest deadline first, ties in submission order
+    private final PriorityQueue<Ticket> mQueue = new PriorityQueue<>(11, new Comparator<Ticket>() {
+        @Override
+        public int compare(Ticket a, Ticket b) {
+            if (a.mDeadline != b.mDeadline)
+                return a.mDeadline < b.mDeadline ? -1 : 1;
+            return a.mSequence < b.mSequence ? -1 : (a.mSequence == b.mSequence ? 0 : 1);
+        }
+    });
+
+    private final long mSliceNanos;
+    private volatile long mEarliestWaitingDeadline = Long.MAX_VALUE;
+    private long mSequence;
+    private boolean mShutdown;
+
+    /**
+     * The scheduler shared by every game in the app, with one worker per processor but one so the
+     * main thread always has a core
+     */
+    public static synchronized AiScheduler getShared() {
+        if (sShared == null) {
+            int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            sShared = new AiScheduler(workers, DEFAULT_SLICE_MILLIS);
+        }
+        return sShared;
+    }
+
+    /**
+     * @param workerCount Number of worker threads
+     * @param sliceMillis How long a search runs before a more urgent one may preempt it
+     */
+    public AiScheduler(int workerCount, long sliceMillis) {
+        mSliceNanos = sliceMillis * NANOS_PER_MILLI;
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "AiScheduler-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a search
+     *
+     * @param job          The search to run, owns its engine until the callback is called
+     * @param budgetMillis Time from now by which the move has to be ready
+     * @param callback     Receives the move, unless the ticket is cancelled first
+     * @return Ticket to follow or cancel the search with
+     */
+    public Ticket submit(SearchJob job, long budgetMillis, Callback callback) {
+        synchronized (this) {
+            if (mShutdown)
+                throw new IllegalStateException("Scheduler has been shut down");
+
+            Ticket ticket = new Ticket(job, System.nanoTime() + budgetMillis * NANOS_PER_MILLI,
+                    callback, mSequence++);
+            enqueue(ticket);
+            return ticket;
+        }
+    }
+
+    /** Stops the workers once their current slice is done, queued searches are dropped */
+    public void shutdown() {
+        synchronized (this) {
+            mShutdown = true;
+            mQueue.clear();
+            mEarliestWaitingDeadline = Long.MAX_VALUE;
+            notifyAll();
+        }
+    }
+
+    private void enqueue(Ticket ticket) {
+        synchronized (this) {
+            mQueue.add(ticket);
+            mEarliestWaitingDeadline = mQueue.peek().mDeadline;
+            notify();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Ticket ticket;
+
+            synchronized (this) {
+                while (mQueue.isEmpty() && !mShutdown) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if (mShutdown)
+                    return;
+
+                ticket = mQueue.poll();
+                mEarliestWaitingDeadline = mQueue.isEmpty()
+                        ? Long.MAX_VALUE : mQueue.peek().mDeadline;
+            }
+
+            runSlice(ticket);
+        }
+    }
+
+    private void runSlice(Ticket ticket) {
+        if (ticket.mCancelled)
+            return;
+
+        ticket.mSliceEnd = System.nanoTime() + mSliceNanos;
+        boolean finished;
+        try {
+            finished = ticket.mJob.run(ticket);
+        } catch (Throwable e) {
+            ticket.mError = e;
+            finished = true;
+        }
+
+        if (ticket.mCancelled)
+            return;
+
+        if (finished || System.nanoTime() >= ticket.mDeadline)
+            ticket.complete();
+        else
+            enqueue(ticket);
+    }
+
+    /**
+     * A submitted search. Doubles as the SearchControl of its job, telling it when to stop.
+     */
+    public class Ticket implements SearchControl {
+        private final SearchJob mJob;
+        private final long mDeadline;
+        private final Callback mCallback;
+        private final long mSequence;
+        private volatile long mSliceEnd;
+        private volatile boolean mCancelled;
+        private volatile boolean mDone;
+        private volatile Throwable mError;
+
+        private Ticket(SearchJob job, long deadline, Callback callback, long sequence) {
+            mJob = job;
+            mDeadline = deadline;
+            mCallback = callback;
+            mSequence = sequence;
+        }
+
+        /**
+         * Stops when cancelled, when the deadline has passed, or when the slice is used up and a
+         * search with an earlier deadline is waiting. This holds in the first iteration too, a
+         * search stopped before finishing one reports its fallback move.
+         */
+        @Override
+        public boolean shouldStop() {
+            if (mCancelled)
+                return true;
+
+            long now = System.nanoTime();
+            return now >= mDeadline || (now >= mSliceEnd && mEarliestWaitingDeadline < mDeadline);
+        }
+
+        private void complete() {
+            int move;
+            try {
+                move = mJob.getBestMove();
+            } catch (Throwable e) {
+                if (mError == null)
+                    mError = e;
+                move = GameEngine.NO_MOVE;
+            }
+
+            mDone = true;
+            try {
+                mCallback.onMoveReady(move);
+            } catch (Throwable e) {
+                if (mError == null)
+                    mError = e;
+            }
+        }
+
+        /**
+         * Drops the search, the callback won't be called. The job's engine is free again once the
+         * current slice stops, which is within a few thousand positions.
+         */
+        public void cancel() {
+            mCancelled = true;
+            mDone = true;
+
+            synchronized (AiScheduler.this) {
+                mQueue.remove(this);
+                mEarliestWaitingDeadline = mQueue.isEmpty()
+                        ? Long.MAX_VALUE : mQueue.peek().mDeadline;
+            }
+        }
+
+        /**
+         * @return True once the move has been reported or the search was cancelled
+         */
+        public boolean isDone() {
+            return mDone;
+        }
+
+        /**
+         * @return What the search or the callback threw, null if neither did
+         */
+        public Throwable getError() {
+            return mError;
+        }
+
+        /**
+         * @return Depth of the deepest search iteration finished so far
+         */
+        public int getCompletedDepth() {
+            return mJob.getCompletedDepth();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tictactoe;
+
+/**
+ * Outcome of analyzing a single position with PositionAnalyzer
+ */
+public class AnalysisResult {
+    private final String mPosition;
+    private final int mBestMove;
+    private final int mScore;
+    private final int[] mPrincipalVariation;
+
+    /**
+     * @param position           The encoded position that was analyzed
+     * @param bestMove           Row-major cell index of the best move, GameEngine.NO_MOVE if the
+     *                           game is already over
+     * @param score              Score of the position for PLAYER_X, see GameEngine
+     * @param principalVariation Expected line of play starting with bestMove
+     */
+    AnalysisResult(String position, int bestMove, int score, int[] principalVariation) {
+        mPosition = position;
+        mBestMove = bestMove;
+        mScore = score;
+        mPrincipalVariation = principalVariation;
+    }
+
+    public String getPosition() {
+        return mPosition;
+    }
+
+    public int getBestMove() {
+        return mBestMove;
+    }
+
+    public int getScore() {
+        return mScore;
+    }
+
+    public int[] getPrincipalVariation() {
+        return mPrincipalVariation.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(mPosition.replace(' ', PositionAnalyzer.EMPTY_CHAR))
+                .append(" best=").append(mBestMove)
+                .append(" score=").append(mScore)
+                .append(" pv=");
+
+        for (int i = 0; i < mPrincipalVariation.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(mPrincipalVariation[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.tictactoe;
+
+/**
+ * Gets the engines ready in the background while the main page is shown, so the first game
+ * doesn't pay for it. Warming up loads the engine classes and their static tables, starts the
+ * shared AiScheduler's workers, runs the searches once so the JIT compiles them, and solves the
+ * classic 3 by 3 game from the empty board. The engine that solved it keeps the scores and bounds
+ * of those positions in its transposition table and is handed to the first classic game, whose
+ * searches are then mostly cut off by the table. The Ultimate engine, whose table is too large to
+ * build twice, is handed to the first Ultimate game the same way after a short search.
+ *
+ * Each step is marked in a StartupTimer.
+ */
+public class EngineWarmUp implements Runnable {
+    private static final int CLASSIC_SIZE = 3;
+
+    // Short enough to take a few milliseconds, long enough to exercise the whole search
+    private static final int ULTIMATE_WARM_UP_DEPTH = 4;
+    private static final long ULTIMATE_WARM_UP_NODES = 20000;
+
+    private static EngineWarmUp sShared;
+
+    private final StartupTimer mTimer;
+    private GameEngine mClassicEngine;
+    private UltimateEngine mUltimateEngine;
+    private boolean mDone;
+
+    /**
+     * @param timer Receives the times the warm-up steps are done
+     */
+    public EngineWarmUp(StartupTimer timer) {
+        mTimer = timer;
+    }
+
+    /**
+     * Starts warming up on a low priority background thread, the first time it is called
+     */
+    public static synchronized void startShared() {
+        if (sShared != null)
+            return;
+
+        sShared = new EngineWarmUp(StartupTimer.getShared());
+        Thread thread = new Thread(sShared, "EngineWarmUp");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @return The warmed up classic engine if the shared warm-up has finished and nobody took it
+     *         yet, a new engine otherwise
+     */
+    public static GameEngine classicEngine() {
+        EngineWarmUp warmUp;
+        synchronized (EngineWarmUp.class) {
+            warmUp = sShared;
+        }
+        return warmUp != null ? warmUp.takeClassicEngine() : new GameEngine(CLASSIC_SIZE);
+    }
+
+    /**
+     * @return The warmed up Ultimate engine if the shared warm-up has finished and nobody took it
+     *         yet, a new engine otherwise
+     */
+    public static UltimateEngine ultimateEngine() {
+        EngineWarmUp warmUp;
+        synchronized (EngineWarmUp.class) {
+            warmUp = sShared;
+        }
+        return warmUp != null ? warmUp.takeUltimateEngine() : new UltimateEngine();
+    }
+
+    @Override
+    public void run() {
+        // Class loading and static tables
+        UltimateEngine.isWin(0);
+        AiScheduler.getShared();
+        mTimer.mark(StartupTimer.WARM_UP_CLASSES);
+
+        // A full search of the empty board visits every classic position
+        GameEngine classic = new GameEngine(CLASSIC_SIZE);
+        classic.search(GameEngine.UNLIMITED_DEPTH);
+        mTimer.mark(StartupTimer.WARM_UP_CLASSIC);
+
+        UltimateEngine ultimate = new UltimateEngine();
+        ultimate.findBestMove(ULTIMATE_WARM_UP_DEPTH, ULTIMATE_WARM_UP_NODES);
+        mTimer.mark(StartupTimer.WARM_UP_ULTIMATE);
+
+        synchronized (this) {
+            mClassicEngine = classic;
+            mUltimateEngine = ultimate;
+            mDone = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Hands over the warmed up classic engine. Only the first caller after the warm-up gets it,
+     * an engine belongs to one game.
+     *
+     * @return The warmed up engine, or a new one if it isn't ready or was already taken
+     */
+    public synchronized GameEngine takeClassicEngine() {
+        if (mClassicEngine == null)
+            return new GameEngine(CLASSIC_SIZE);
+
+        GameEngine engine = mClassicEngine;
+        mClassicEngine = null;
+        return engine;
+    }
+
+    /**
+     * Hands over the warmed up Ultimate engine, like takeClassicEngine()
+     *
+     * @return The warmed up engine, or a new one if it isn't ready or was already taken
+     */
+    public synchronized UltimateEngine takeUltimateEngine() {
+        if (mUltimateEngine == null)
+            return new UltimateEngine();
+
+        UltimateEngine engine = mUltimateEngine;
+        mUltimateEngine = null;
+        return engine;
+    }
+
+    /**
+     * Waits for the warm-up to finish
+     *
+     * @return True if it finished within the time
+     */
+    public synchronized boolean await(long millis) throws InterruptedException {
+        long end = System.currentTimeMillis() + millis;
+
+        while (!mDone) {
+            long left = end - System.currentTimeMillis();
+            if (left <= 0)
+                return false;
+            wait(left);
+        }
+        return true;
+    }
+
+    public synchronized boolean isDone() {
+        return mDone;
+    }
+}
@@ -0,0 +1,898 @@
+package com.example.tictactoe;
+
+import java.util.Random;
+
+/**
+ * Android-free search engine for square boards of size N by N where a player needs K moves in a
+ * row, column, or diagonal to win. The board is described by its winning windows (every run of K
+ * cells along a line) and the engine keeps a count of each player's moves per window, so placing
+ * or removing a move only touches the windows running through that cell.
+ *
+ * Scores are from PLAYER_X's point of view: positive is good for X, negative is good for O. A win
+ * is worth WIN_SCORE minus the number of moves on the board, so faster wins score higher.
+ *
+ * Searches cut off before the end of the game score their leaves with a PatternEvaluator, whose
+ * total is kept up to date the same way as the window counts. On big boards they only search
+ * the cells near existing moves, searches to the end of the game still try every cell.
+ *
+ * Moves are row-major cell indices (row * size + col). All tables and move lists are allocated
+ * up front, so play(), undo() and the searches never allocate on the heap.
+ *
+ * An engine instance is not thread safe. Reuse one per thread so its transposition table carries
+ * over between searches.
+ */
+public class GameEngine {
+    // Cell contents
+    public static final byte EMPTY = 0;
+    public static final byte PLAYER_X = 1;
+    public static final byte PLAYER_O = 2;
+
+    public static final int WIN_SCORE = 1000000;
+    public static final int NO_MOVE = -1;
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    // Number of symmetries of a square board (4 rotations, each optionally mirrored)
+    public static final int SYMMETRY_COUNT = 8;
+
+    private static final int DEFAULT_TABLE_BITS = 16;
+
+    // On boards this big depth-limited searches only try cells within NEIGHBOUR_DISTANCE of a move
+    private static final int NEIGHBOUR_FILTER_MIN_SIZE = 6;
+    private static final int NEIGHBOUR_DISTANCE = 2;
+
+    // Proof-number search used when a depth-limited search spots a forcing sequence. The budget
+    // keeps one call to a few hundred milliseconds on a phone, an unfinished proof is picked up
+    // again by the next call through the table it keeps.
+    private static final int PROOF_TABLE_BITS = 16;
+    private static final long PROOF_NODE_BUDGET = 10000;
+
+    // The search control is polled whenever the node count is a multiple of this plus one
+    private static final int CONTROL_CHECK_MASK = 0xFFF;
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+    // Board geometry
+    private final int mSize;
+    private final int mWinLength;
+    private final int mCellCount;
+    private final int[] mWindowCells;   // Flattened, mWinLength cells per window
+    private final int[][] mCellWindows; // Windows running through each cell
+    private final int[][] mSymmetries;  // mSymmetries[s][cell] = cell after symmetry s
+    private final int[] mCellOrder;     // Cells through the most windows first
+    private final int[][] mNeighbourCells; // Cells within NEIGHBOUR_DISTANCE of each cell
+    private final boolean mNeighbourFilter;
+    private final long[][] mZobrist;    // Random keys per [player][cell]
+    private final long mSideKey;        // Mixed into the hash when O is to move
+
+    // Board state
+    private final byte[] mCells;
+    private final int[] mXCount;
+    private final int[] mOCount;
+    private final int[] mNeighbours;    // Number of moves within NEIGHBOUR_DISTANCE of each cell
+    private int mMoves;
+    private byte mSideToMove = PLAYER_X;
+    private int mWinner = EMPTY;
+    private long mHash;
+
+    // Evaluation state
+    private PatternEvaluator mEvaluator;
+    private int[] mWindowScores;
+    private int mEvaluation;
+    private MoveModel mModel;
+
+    // Search state
+    private final TranspositionTable mTable;
+    private final SearchContext mContext;
+    private ProofNumberSearch mProofSearch;
+    private SearchControl mControl;
+    private boolean mAborted;
+
+    /**
+     * Creates an engine for the classic game where a whole row, column, or diagonal wins
+     *
+     * @param size Number of rows and columns on the board
+     */
+    public GameEngine(int size) {
+        this(size, size);
+    }
+
+    public GameEngine(int size, int winLength) {
+        this(size, winLength, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * @param size      Number of rows and columns on the board
+     * @param winLength Number of moves in a line needed to win
+     * @param tableBits Transposition table holds 2^tableBits entries
+     */
+    public GameEngine(int size, int winLength, int tableBits) {
+        if (size < 1 || winLength < 1 || winLength > size)
+            throw new IllegalArgumentException("Invalid board " + size + "x" + size
+                    + " with win length " + winLength);
+
+        mSize = size;
+        mWinLength = winLength;
+        mCellCount = size * size;
+        mCells = new byte[mCellCount];
+        mWindowCells = buildWindows(size, winLength);
+        mCellWindows = buildCellWindows(mWindowCells, mCellCount, winLength);
+        mSymmetries = buildSymmetries(size);
+        mCellOrder = buildCellOrder(mCellWindows);
+        mNeighbourCells = buildNeighbourCells(size);
+        mNeighbourFilter = size >= NEIGHBOUR_FILTER_MIN_SIZE;
+        mXCount = new int[getWindowCount()];
+        mOCount = new int[getWindowCount()];
+        mNeighbours = new int[mCellCount];
+        mEvaluator = new PatternEvaluator(winLength);
+        mWindowScores = mEvaluator.getWindowScores();
+        mTable = new TranspositionTable(tableBits);
+        mContext = new SearchContext(mCellCount);
+
+        Random random = new Random(ZOBRIST_SEED);
+        mZobrist = new long[3][mCellCount];
+        for (int cell = 0; cell < mCellCount; cell++) {
+            mZobrist[PLAYER_X][cell] = random.nextLong();
+            mZobrist[PLAYER_O][cell] = random.nextLong();
+        }
+        mSideKey = random.nextLong();
+    }
+
+    /**
+     * Lists every run of winLength cells along a row, column, or diagonal
+     */
+    private static int[] buildWindows(int size, int winLength) {
+        int span = size - winLength + 1;
+        // Rows and columns have size * span windows each, both diagonals have span * span each
+        int windowCount = 2 * size * span + 2 * span * span;
+        int[] windows = new int[windowCount * winLength];
+        int index = 0;
+
+        // Rows
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < span; col++) {
+                for (int i = 0; i < winLength; i++)
+                    windows[index++] = row * size + col + i;
+            }
+        }
+
+        // Columns
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < span; row++) {
+                for (int i = 0; i < winLength; i++)
+                    windows[index++] = (row + i) * size + col;
+            }
+        }
+
+        // Negative sloped diagonals
+        for (int row = 0; row < span; row++) {
+            for (int col = 0; col < span; col++) {
+                for (int i = 0; i < winLength; i++)
+                    windows[index++] = (row + i) * size + col + i;
+            }
+        }
+
+        // Positive sloped diagonals
+        for (int row = 0; row < span; row++) {
+            for (int col = winLength - 1; col < size; col++) {
+                for (int i = 0; i < winLength; i++)
+                    windows[index++] = (row + i) * size + col - i;
+            }
+        }
+        return windows;
+    }
+
+    private static int[][] buildCellWindows(int[] windowCells, int cellCount, int winLength) {
+        int windowCount = windowCells.length / winLength;
+        int[] counts = new int[cellCount];
+
+        for (int cell : windowCells)
+            counts[cell]++;
+
+        int[][] cellWindows = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++)
+            cellWindows[cell] = new int[counts[cell]];
+
+        int[] filled = new int[cellCount];
+        for (int window = 0; window < windowCount; window++) {
+            for (int i = 0; i < winLength; i++) {
+                int cell = windowCells[window * winLength + i];
+                cellWindows[cell][filled[cell]++] = window;
+            }
+        }
+        return cellWindows;
+    }
+
+    /**
+     * Orders the cells by how many windows run through them, the center of the board first. Moves
+     * are tried in this order, which finds cutoffs much sooner than the row-major order.
+     */
+    private static int[] buildCellOrder(int[][] cellWindows) {
+        int[] order = new int[cellWindows.length];
+
+        for (int cell = 0; cell < order.length; cell++)
+            order[cell] = cell;
+
+        // Insertion sort keeps cells with the same count in row-major order
+        for (int i = 1; i < order.length; i++) {
+            int cell = order[i];
+            int j = i - 1;
+
+            while (j >= 0 && cellWindows[order[j]].length < cellWindows[cell].length) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = cell;
+        }
+        return order;
+    }
+
+    private static int[][] buildNeighbourCells(int size) {
+        int[][] neighbourCells = new int[size * size][];
+        int[] buffer = new int[(2 * NEIGHBOUR_DISTANCE + 1) * (2 * NEIGHBOUR_DISTANCE + 1)];
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int count = 0;
+
+                for (int r = row - NEIGHBOUR_DISTANCE; r <= row + NEIGHBOUR_DISTANCE; r++) {
+                    for (int c = col - NEIGHBOUR_DISTANCE; c <= col + NEIGHBOUR_DISTANCE; c++) {
+                        if (r >= 0 && r < size && c >= 0 && c < size && (r != row || c != col))
+                            buffer[count++] = r * size + c;
+                    }
+                }
+
+                neighbourCells[row * size + col] = new int[count];
+                System.arraycopy(buffer, 0, neighbourCells[row * size + col], 0, count);
+            }
+        }
+        return neighbourCells;
+    }
+
+    private static int[][] buildSymmetries(int size) {
+        int[][] symmetries = new int[SYMMETRY_COUNT][size * size];
+        int last = size - 1;
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                symmetries[0][cell] = cell;
+                symmetries[1][cell] = col * size + (last - row);
+                symmetries[2][cell] = (last - row) * size + (last - col);
+                symmetries[3][cell] = (last - col) * size + row;
+                symmetries[4][cell] = row * size + (last - col);
+                symmetries[5][cell] = (last - row) * size + col;
+                symmetries[6][cell] = col * size + row;
+                symmetries[7][cell] = (last - col) * size + (last - row);
+            }
+        }
+        return symmetries;
+    }
+
+    /** Sets all the spaces on the board to empty */
+    public void reset() {
+        for (int cell = 0; cell < mCellCount; cell++)
+            mCells[cell] = EMPTY;
+        for (int window = 0; window < mXCount.length; window++) {
+            mXCount[window] = 0;
+            mOCount[window] = 0;
+        }
+        for (int cell = 0; cell < mCellCount; cell++)
+            mNeighbours[cell] = 0;
+        mMoves = 0;
+        mEvaluation = 0;
+        mSideToMove = PLAYER_X;
+        mWinner = EMPTY;
+        mHash = 0;
+    }
+
+    /**
+     * Loads a position, replacing whatever is currently on the board. X is to move if both players
+     * have made the same number of moves, O otherwise.
+     *
+     * @param cells Contents of every cell in row-major order, using EMPTY, PLAYER_X and PLAYER_O
+     */
+    public void setPosition(byte[] cells) {
+        if (cells.length != mCellCount)
+            throw new IllegalArgumentException("Expected " + mCellCount + " cells, got "
+                    + cells.length);
+
+        reset();
+        for (int cell = 0; cell < mCellCount; cell++) {
+            if (cells[cell] != EMPTY)
+                put(cell, cells[cell]);
+        }
+        setSideToMove((mMoves & 1) == 0 ? PLAYER_X : PLAYER_O);
+    }
+
+    /**
+     * Places a move for the player whose turn it is
+     *
+     * @param cell Row-major index of the cell, must be empty
+     */
+    public void play(int cell) {
+        playAs(cell, mSideToMove);
+    }
+
+    /**
+     * Places a move for the given player, after which it is the other player's turn. Lets a game
+     * mirror its own board even if a player moves out of turn.
+     *
+     * @param cell   Row-major index of the cell, must be empty
+     * @param player PLAYER_X or PLAYER_O
+     */
+    public void playAs(int cell, byte player) {
+        put(cell, player);
+        setSideToMove(player == PLAYER_X ? PLAYER_O : PLAYER_X);
+    }
+
+    /**
+     * Takes back the move in the given cell. Moves must be undone in the reverse order they were
+     * played.
+     */
+    public void undo(int cell) {
+        byte player = mCells[cell];
+        int[] windows = mCellWindows[cell];
+        int[] counts = player == PLAYER_X ? mXCount : mOCount;
+        int step = player == PLAYER_X ? mWinLength + 1 : 1;
+
+        for (int window : windows) {
+            int index = mXCount[window] * (mWinLength + 1) + mOCount[window];
+            mEvaluation += mWindowScores[index - step] - mWindowScores[index];
+            counts[window]--;
+        }
+
+        for (int neighbour : mNeighbourCells[cell])
+            mNeighbours[neighbour]--;
+
+        mCells[cell] = EMPTY;
+        mHash ^= mZobrist[player][cell];
+        mMoves--;
+        mWinner = EMPTY;
+        setSideToMove(player);
+    }
+
+    private void setSideToMove(byte player) {
+        if (player != mSideToMove)
+            mHash ^= mSideKey;
+        mSideToMove = player;
+    }
+
+    private void put(int cell, byte player) {
+        int[] windows = mCellWindows[cell];
+        int[] counts = player == PLAYER_X ? mXCount : mOCount;
+        int step = player == PLAYER_X ? mWinLength + 1 : 1;
+
+        for (int window : windows) {
+            int index = mXCount[window] * (mWinLength + 1) + mOCount[window];
+            mEvaluation += mWindowScores[index + step] - mWindowScores[index];
+
+            if (++counts[window] == mWinLength)
+                mWinner = player;
+        }
+
+        for (int neighbour : mNeighbourCells[cell])
+            mNeighbours[neighbour]++;
+
+        mCells[cell] = player;
+        mHash ^= mZobrist[player][cell];
+        mMoves++;
+    }
+
+    /**
+     * Minimax search with alpha-beta pruning over the current position. Results of every searched
+     * position are kept in the transposition table, so consecutive searches on the same engine
+     * share their work. The best move found is available from getBestMove() afterwards.
+     *
+     * @param maxDepth Number of moves to look ahead, UNLIMITED_DEPTH searches to the end of the game
+     * @return The score of the current position for PLAYER_X
+     */
+    public int search(int maxDepth) {
+        mContext.start();
+        mAborted = false;
+        return alphaBeta(0, maxDepth, -WIN_SCORE - 1, WIN_SCORE + 1);
+    }
+
+    /**
+     * Finds the best cell for the given player to move in, whether or not it is that player's
+     * turn. The other player is assumed to move next.
+     *
+     * If the search can't reach the end of the game, findProvenWin() first tries to prove a forced
+     * win, which plays exactly where the depth-limited search would only guess.
+     *
+     * @param player   PLAYER_X or PLAYER_O
+     * @param maxDepth Number of moves to look ahead, UNLIMITED_DEPTH searches to the end of the game
+     * @return The best cell for the player, NO_MOVE if the game is over or the search control
+     *         stopped the search, see isAborted()
+     */
+    public int findBestMove(byte player, int maxDepth) {
+        int move = NO_MOVE;
+
+        if (maxDepth < mCellCount - mMoves) {
+            move = findProvenWin(player);
+            if (mAborted)
+                return NO_MOVE;
+        }
+        return move != NO_MOVE ? move : searchBestMove(player, maxDepth);
+    }
+
+    /**
+     * Finds the best cell for the given player by the alpha-beta search alone, without trying to
+     * prove a win first
+     *
+     * @return The best cell for the player, NO_MOVE if the game is over or the search was stopped
+     */
+    public int searchBestMove(byte player, int maxDepth) {
+        byte sideToMove = mSideToMove;
+        setSideToMove(player);
+
+        search(maxDepth);
+        int move = mAborted ? NO_MOVE : mContext.getBestMove();
+
+        setSideToMove(sideToMove);
+        return move;
+    }
+
+    /**
+     * If the player has a forcing threat on the board, runs a ProofNumberSearch for a forced win
+     * with the player to move. The search gets a bounded number of positions per call, a proof it
+     * couldn't finish is continued by the next call.
+     *
+     * @return The first move of a proven win, NO_MOVE if none was found or the search control
+     *         stopped the search
+     */
+    public int findProvenWin(byte player) {
+        mAborted = false;
+        if (isGameOver() || !hasForcingThreat(player))
+            return NO_MOVE;
+
+        // Created on first use, the table is reused afterwards
+        if (mProofSearch == null)
+            mProofSearch = new ProofNumberSearch(this, PROOF_TABLE_BITS);
+
+        byte sideToMove = mSideToMove;
+        setSideToMove(player);
+
+        int move = NO_MOVE;
+        if (mProofSearch.prove(PROOF_NODE_BUDGET, mControl) == ProofNumberSearch.PROVEN)
+            move = mProofSearch.getWinningMove();
+        mAborted = mProofSearch.isAborted();
+
+        setSideToMove(sideToMove);
+        return move;
+    }
+
+    /**
+     * A player has a forcing threat when some window holds winLength - 2 or more of their moves
+     * and none of the other player's, so the other player has to start answering their moves
+     */
+    public boolean hasForcingThreat(byte player) {
+        int[] own = player == PLAYER_X ? mXCount : mOCount;
+        int[] other = player == PLAYER_X ? mOCount : mXCount;
+
+        for (int window = 0; window < own.length; window++) {
+            if (own[window] >= mWinLength - 2 && own[window] > 0 && other[window] == 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return An empty cell that wins the game at once for the player, NO_MOVE if there is none
+     */
+    public int findWinningCell(byte player) {
+        int[] own = player == PLAYER_X ? mXCount : mOCount;
+        int[] other = player == PLAYER_X ? mOCount : mXCount;
+
+        for (int window = 0; window < own.length; window++) {
+            if (own[window] == mWinLength - 1 && other[window] == 0) {
+                for (int i = 0; i < mWinLength; i++) {
+                    int cell = mWindowCells[window * mWinLength + i];
+                    if (mCells[cell] == EMPTY)
+                        return cell;
+                }
+            }
+        }
+        return NO_MOVE;
+    }
+
+    /**
+     * @param ply   Number of moves played since the root of the search
+     * @param depth Number of moves left to look ahead
+     */
+    private int alphaBeta(int ply, int depth, int alpha, int beta) {
+        mContext.countNode();
+
+        if (mControl != null && (mContext.getNodes() & CONTROL_CHECK_MASK) == 1
+                && mControl.shouldStop())
+            mAborted = true;
+
+        if (mAborted)
+            return 0;
+
+        // Check for terminal cases (recursive call exit conditions)
+        if (mWinner == PLAYER_X)
+            return WIN_SCORE - mMoves;
+        else if (mWinner == PLAYER_O)
+            return -(WIN_SCORE - mMoves);
+        else if (mMoves == mCellCount)
+            return 0;
+        else if (depth == 0)
+            return PatternEvaluator.clamp(mEvaluation);
+
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int ttMove = NO_MOVE;
+        long entry = mTable.probe(mHash);
+
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.move(entry);
+
+            // The root always searches its moves so that it has a best move to report
+            if (ply > 0 && TranspositionTable.depth(entry) >= Math.min(depth, mCellCount)) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+
+                if (bound == TranspositionTable.EXACT)
+                    return score;
+                else if (bound == TranspositionTable.LOWER && score > alpha)
+                    alpha = score;
+                else if (bound == TranspositionTable.UPPER && score < beta)
+                    beta = score;
+
+                if (alpha >= beta)
+                    return score;
+            }
+        }
+
+        int[] moves = mContext.moves(ply);
+        // Far away cells are only skipped where the search can't reach the end of the game
+        int moveCount = generateMoves(moves, ttMove, depth < mCellCount - mMoves);
+
+        if (mModel != null)
+            orderMoves(moves, mContext.scores(ply), ttMove == moves[0] ? 1 : 0, moveCount);
+        boolean maximizing = mSideToMove == PLAYER_X;
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = NO_MOVE;
+
+        for (int i = 0; i < moveCount && alpha < beta; i++) {
+            int move = moves[i];
+
+            play(move);
+            int score = alphaBeta(ply + 1, depth - 1, alpha, beta);
+            undo(move);
+
+            // Scores of an abandoned search mean nothing, keep them out of the table
+            if (mAborted)
+                return 0;
+
+            if (maximizing ? score > bestValue : score < bestValue) {
+                bestValue = score;
+                bestMove = move;
+            }
+
+            if (maximizing && bestValue > alpha)
+                alpha = bestValue;
+            else if (!maximizing && bestValue < beta)
+                beta = bestValue;
+        }
+
+        int bound;
+        if (bestValue <= originalAlpha)
+            bound = TranspositionTable.UPPER;
+        else if (bestValue >= originalBeta)
+            bound = TranspositionTable.LOWER;
+        else
+            bound = TranspositionTable.EXACT;
+
+        mTable.store(mHash, bestValue, Math.min(depth, mCellCount), bound, bestMove);
+
+        if (ply == 0)
+            mContext.setBestMove(bestMove);
+
+        return bestValue;
+    }
+
+    /**
+     * Fills the move list with every empty cell worth searching, in mCellOrder
+     *
+     * @return The number of moves in the list
+     */
+    int generateMoves(int[] moves) {
+        return generateMoves(moves, NO_MOVE, true);
+    }
+
+    /**
+     * Fills the move list with the empty cells in mCellOrder
+     *
+     * @param nearOnly Leave out cells far from every move, like generateMoves(int[]), or list
+     *                 every empty cell
+     * @return The number of moves in the list
+     */
+    int generateMoves(int[] moves, boolean nearOnly) {
+        return generateMoves(moves, NO_MOVE, nearOnly);
+    }
+
+    /**
+     * Fills the move list with the empty cells to search, the transposition table move first and
+     * the rest in mCellOrder
+     *
+     * @param nearOnly Leave out cells far from every move, on boards big enough for the filter
+     * @return The number of moves in the list
+     */
+    private int generateMoves(int[] moves, int ttMove, boolean nearOnly) {
+        boolean filter = nearOnly && mNeighbourFilter && mMoves > 0;
+        int count = 0;
+
+        if (ttMove != NO_MOVE && mCells[ttMove] == EMPTY)
+            moves[count++] = ttMove;
+
+        for (int cell : mCellOrder) {
+            if (mCells[cell] == EMPTY && cell != ttMove && (!filter || mNeighbours[cell] > 0))
+                moves[count++] = cell;
+        }
+        return count;
+    }
+
+    /**
+     * Sorts moves[from..count) by the model's ordering score, highest first. Moves with equal
+     * scores keep the mCellOrder they were generated in.
+     */
+    private void orderMoves(int[] moves, int[] scores, int from, int count) {
+        int[] orderScores = mModel.getOrderScores(mSideToMove);
+        int stride = mWinLength + 1;
+
+        for (int i = from; i < count; i++) {
+            int score = 0;
+            for (int window : mCellWindows[moves[i]])
+                score += orderScores[mXCount[window] * stride + mOCount[window]];
+
+            // Insertion sort, the lists are short and mostly ordered already by mCellOrder
+            int move = moves[i];
+            int j = i - 1;
+            while (j >= from && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Follows the best moves stored in the transposition table from the current position. Should
+     * be called right after search(), before the table gets reused.
+     *
+     * @param maxLength Longest line to return
+     * @return The expected line of play, starting with the best move in the current position
+     */
+    public int[] principalVariation(int maxLength) {
+        int[] line = new int[Math.min(maxLength, mCellCount - mMoves)];
+        int length = 0;
+
+        while (length < line.length && mWinner == EMPTY) {
+            long entry = mTable.probe(mHash);
+            if (entry == TranspositionTable.MISS)
+                break;
+
+            int move = TranspositionTable.move(entry);
+            if (move == NO_MOVE || mCells[move] != EMPTY)
+                break;
+
+            play(move);
+            line[length++] = move;
+        }
+
+        for (int i = length - 1; i >= 0; i--)
+            undo(line[i]);
+
+        if (length == line.length)
+            return line;
+
+        int[] trimmed = new int[length];
+        System.arraycopy(line, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    /**
+     * Hash of the current position which is the same for all positions that are rotations or
+     * mirror images of each other
+     */
+    public long canonicalHash() {
+        return symmetricHash(canonicalSymmetry());
+    }
+
+    /**
+     * @return The symmetry which maps the current board to its canonical form
+     */
+    public int canonicalSymmetry() {
+        int best = 0;
+        long bestHash = mHash;
+
+        for (int s = 1; s < SYMMETRY_COUNT; s++) {
+            long hash = symmetricHash(s);
+            if (hash < bestHash) {
+                bestHash = hash;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    private long symmetricHash(int symmetry) {
+        if (symmetry == 0)
+            return mHash;
+
+        int[] map = mSymmetries[symmetry];
+        long hash = mSideToMove == PLAYER_O ? mSideKey : 0;
+
+        for (int cell = 0; cell < mCellCount; cell++) {
+            if (mCells[cell] != EMPTY)
+                hash ^= mZobrist[mCells[cell]][map[cell]];
+        }
+        return hash;
+    }
+
+    /**
+     * @param symmetry Index below SYMMETRY_COUNT, 0 is the identity
+     * @param cell     Row-major index of a cell
+     * @return Where the cell ends up after applying the symmetry
+     */
+    public int transformCell(int symmetry, int cell) {
+        return mSymmetries[symmetry][cell];
+    }
+
+    /**
+     * @return The index of the symmetry that undoes the given one
+     */
+    public int inverseSymmetry(int symmetry) {
+        // Rotations by 90 and 270 degrees undo each other, every other symmetry undoes itself
+        if (symmetry == 1)
+            return 3;
+        else if (symmetry == 3)
+            return 1;
+        else
+            return symmetry;
+    }
+
+    /**
+     * Replaces the evaluator used to score the leaves of depth-limited searches. Clears the
+     * transposition table, whose scores came from the old evaluator.
+     */
+    public void setEvaluator(PatternEvaluator evaluator) {
+        if (evaluator.getWinLength() != mWinLength)
+            throw new IllegalArgumentException("Evaluator is for win length "
+                    + evaluator.getWinLength() + ", board needs " + mWinLength);
+
+        mEvaluator = evaluator;
+        mWindowScores = evaluator.getWindowScores();
+        mEvaluation = evaluator.evaluate(this);
+        mTable.clear();
+    }
+
+    /**
+     * Lets a trained model order the moves of every search and score its leaves. Clears the
+     * transposition table.
+     *
+     * @param model Model for this board's win length, null to go back to the default evaluator
+     *              and the fixed center-first order
+     */
+    public void setModel(MoveModel model) {
+        if (model == null) {
+            mModel = null;
+            setEvaluator(new PatternEvaluator(mWinLength));
+            return;
+        }
+
+        if (model.getWinLength() != mWinLength)
+            throw new IllegalArgumentException("Model is for win length " + model.getWinLength()
+                    + ", board needs " + mWinLength);
+
+        setEvaluator(model.createEvaluator());
+        mModel = model;
+    }
+
+    /**
+     * @param control Polled during searches to stop them early, null to always search to the end
+     */
+    public void setSearchControl(SearchControl control) {
+        mControl = control;
+    }
+
+    /**
+     * @return True if the last search was stopped by its SearchControl before it finished
+     */
+    public boolean isAborted() {
+        return mAborted;
+    }
+
+    /** Empties the transposition table, and the proof-number table if there is one */
+    public void clearTable() {
+        mTable.clear();
+        if (mProofSearch != null)
+            mProofSearch.clear();
+    }
+
+    /**
+     * @return The player whose turn it is
+     */
+    public byte sideToMove() {
+        return mSideToMove;
+    }
+
+    /**
+     * @return PLAYER_X or PLAYER_O if the last move won the game, EMPTY otherwise
+     */
+    public int getWinner() {
+        return mWinner;
+    }
+
+    public boolean isGameOver() {
+        return mWinner != EMPTY || mMoves == mCellCount;
+    }
+
+    /**
+     * Getters for member variables below
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    public int getWinLength() {
+        return mWinLength;
+    }
+
+    public int getCellCount() {
+        return mCellCount;
+    }
+
+    public int getWindowCount() {
+        return mWindowCells.length / mWinLength;
+    }
+
+    public byte getCell(int cell) {
+        return mCells[cell];
+    }
+
+    public int getMoveCount() {
+        return mMoves;
+    }
+
+    /**
+     * @param window Index below getWindowCount()
+     * @param i      Position inside the window, below getWinLength()
+     * @return The cell at that position of the window
+     */
+    public int getWindowCell(int window, int i) {
+        return mWindowCells[window * mWinLength + i];
+    }
+
+    /**
+     * @return The PatternEvaluator score of the current position for PLAYER_X
+     */
+    public int getEvaluation() {
+        return mEvaluation;
+    }
+
+    public PatternEvaluator getEvaluator() {
+        return mEvaluator;
+    }
+
+    public MoveModel getModel() {
+        return mModel;
+    }
+
+    public long getHash() {
+        return mHash;
+    }
+
+    /**
+     * @return The best move found by the last search
+     */
+    public int getBestMove() {
+        return mContext.getBestMove();
+    }
+
+    public long getNodeCount() {
+        return mContext.getNodes();
+    }
+}
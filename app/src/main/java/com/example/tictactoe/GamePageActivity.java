@@ -21,7 +21,8 @@ import java.util.Locale;
 /**
  * Activity page where the game is played
  */
-public class GamePageActivity extends AppCompatActivity {
+public class GamePageActivity extends AppCompatActivity
+        implements PlayerNameDialogFragment.Listener {
     private static final String TAG = GamePageActivity.class.getName();
     private GameViewModel gameViewModel;
 
@@ -31,11 +32,14 @@ public class GamePageActivity extends AppCompatActivity {
     private TextView mPlayer2TextView;
     private ImageView mPlayer1ImageView;
     private ImageView mPlayer2ImageView;
+    private PlayerProfileStore mProfileStore;
 
     // Constants to identify the two pictures user takes
     private static final int REQUEST_PLAYER1_IMAGE_CAPTURE = 1;
     private static final int REQUEST_PLAYER2_IMAGE_CAPTURE = 2;
 
+    private static final String PLAYER_NAME_DIALOG_TAG = "player name dialog";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -60,27 +64,40 @@ public class GamePageActivity extends AppCompatActivity {
         Log.v(TAG, "Single: " + gameViewModel.getSinglePlayerOption());
         // Log the game mode selected, easy or hard
         Log.v(TAG, "Mode: " + intent.getIntExtra(MainActivity.SINGLE_PLAYER, 0));
-
-        // Take pictures based on the game mode selected. If onCreate() gets called again during a
-        // configuration change and user already took a picture, use the previous pictures
-        if (gameViewModel.getPlayer1BitmapImage() == null) {
-            if (gameViewModel.getSinglePlayerOption()) {
-                openCamera(REQUEST_PLAYER1_IMAGE_CAPTURE);
-                mPlayer2ImageView.setImageResource(R.drawable.computer);
-                gameViewModel.setDifficulty
-                        (intent.getIntExtra(MainActivity.SINGLE_PLAYER, 0));
-            } else {
-                openCamera(REQUEST_PLAYER2_IMAGE_CAPTURE);
+        if (gameViewModel.getSinglePlayerOption())
+            gameViewModel.setDifficulty(intent.getIntExtra(MainActivity.SINGLE_PLAYER, 0));
+
+        // Set up the players the first time onCreate() is called, each player starts by picking
+        // their name. If onCreate() gets called again during a configuration change, use the
+        // previous players, or the name dialog that is still showing
+        mProfileStore = new PlayerProfileStore(this);
+        if (gameViewModel.getPlayer1Name() == null
+                && getSupportFragmentManager().findFragmentByTag(PLAYER_NAME_DIALOG_TAG) == null)
+            choosePlayerName(1);
+
+        mPlayer1ImageView.setImageBitmap(gameViewModel.getPlayer1BitmapImage());
+        if (gameViewModel.getSinglePlayerOption())
+            mPlayer2ImageView.setImageResource(R.drawable.computer);
+        else
+            mPlayer2ImageView.setImageBitmap(gameViewModel.getPlayer2BitmapImage());
+
+        // Long press a player's picture to replace it with a new one
+        mPlayer1ImageView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View view) {
                 openCamera(REQUEST_PLAYER1_IMAGE_CAPTURE);
+                return true;
             }
-        } else {
-            if (gameViewModel.getSinglePlayerOption()) {
-                mPlayer1ImageView.setImageBitmap(gameViewModel.getPlayer1BitmapImage());
-                mPlayer2ImageView.setImageResource(R.drawable.computer);
-            } else {
-                mPlayer1ImageView.setImageBitmap(gameViewModel.getPlayer1BitmapImage());
-                mPlayer2ImageView.setImageBitmap(gameViewModel.getPlayer2BitmapImage());
-            }
+        });
+
+        if (!gameViewModel.getSinglePlayerOption()) {
+            mPlayer2ImageView.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View view) {
+                    openCamera(REQUEST_PLAYER2_IMAGE_CAPTURE);
+                    return true;
+                }
+            });
         }
 
         // Only populate board if there is at least 1 move on the board during a configuration change
@@ -95,6 +112,26 @@ public class GamePageActivity extends AppCompatActivity {
             }
         });
 
+        // Show the players' pictures once their profiles are loaded
+        gameViewModel.getProfilesLoaded().observe(this, new Observer<Boolean>() {
+            @Override
+            public void onChanged(Boolean loaded) {
+                if (loaded) {
+                    gameViewModel.getProfilesLoaded().setValue(false);
+                    showProfiles();
+                }
+            }
+        });
+
+        // Place the computer's move once the shared scheduler has found it
+        gameViewModel.getAiMove().observe(this, new Observer<Integer>() {
+            @Override
+            public void onChanged(Integer move) {
+                if (move != GameEngine.NO_MOVE && gameViewModel.consumeAiMove())
+                    placeAIMove(move);
+            }
+        });
+
         gameViewModel.getPlayer2Points().observe(this, new Observer<Integer>() {
             @Override
             public void onChanged(Integer points) {
@@ -116,6 +153,64 @@ public class GamePageActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Asks a player for their name, onPlayerNameChosen() gets it
+     *
+     * @param player 1 or 2
+     */
+    private void choosePlayerName(int player) {
+        // Player 2 can't take player 1's profile
+        String takenName = player == 2 ? gameViewModel.getPlayer1Name() : null;
+        PlayerNameDialogFragment.newInstance(player, takenName)
+                .show(getSupportFragmentManager(), PLAYER_NAME_DIALOG_TAG);
+    }
+
+    /**
+     * Loads the players' profiles once every player has a name, showProfiles() is called when
+     * they are in
+     */
+    @Override
+    public void onPlayerNameChosen(int player, String name) {
+        mProfileStore.savePlayerName(name);
+
+        if (player == 1) {
+            gameViewModel.setPlayer1Name(name);
+
+            if (!gameViewModel.getSinglePlayerOption()) {
+                choosePlayerName(2);
+                return;
+            }
+        } else
+            gameViewModel.setPlayer2Name(name);
+
+        gameViewModel.loadProfiles(mProfileStore);
+    }
+
+    /**
+     * Shows the loaded players' pictures. Returning players have their saved picture, pictures
+     * are taken for players who have none yet.
+     */
+    private void showProfiles() {
+        mPlayer1ImageView.setImageBitmap(gameViewModel.getPlayer1BitmapImage());
+
+        if (!gameViewModel.getSinglePlayerOption()) {
+            mPlayer2ImageView.setImageBitmap(gameViewModel.getPlayer2BitmapImage());
+            if (gameViewModel.getPlayer2BitmapImage() == null)
+                openCamera(REQUEST_PLAYER2_IMAGE_CAPTURE);
+        }
+
+        if (gameViewModel.getPlayer1BitmapImage() == null)
+            openCamera(REQUEST_PLAYER1_IMAGE_CAPTURE);
+    }
+
+    /**
+     * Go back to main page activity if a player does not give their name
+     */
+    @Override
+    public void onPlayerNameCancelled() {
+        finish();
+    }
+
     /**
      * Opens the phone camera to take picture(s)
      *
@@ -130,7 +225,7 @@ public class GamePageActivity extends AppCompatActivity {
 
     /**
      * Called after openCamera() successfully executes. Sets the value for the BitmapImage and
-     * player ImageView variables
+     * player ImageView variables, and saves the picture to the player's profile
      *
      * @param requestCode The player(s) the picture is going to be taken for
      * @param resultCode  If camera was successful in opening up or not
@@ -146,18 +241,33 @@ public class GamePageActivity extends AppCompatActivity {
                 case REQUEST_PLAYER1_IMAGE_CAPTURE:
                     gameViewModel.setPlayer1BitmapImage((Bitmap) extras.get("data"));
                     mPlayer1ImageView.setImageBitmap(gameViewModel.getPlayer1BitmapImage());
+                    mProfileStore.saveThumbnail(gameViewModel.getPlayer1Name(),
+                            gameViewModel.getPlayer1BitmapImage());
                     break;
 
                 case REQUEST_PLAYER2_IMAGE_CAPTURE:
                     gameViewModel.setPlayer2BitmapImage((Bitmap) extras.get("data"));
                     mPlayer2ImageView.setImageBitmap(gameViewModel.getPlayer2BitmapImage());
+                    mProfileStore.saveThumbnail(gameViewModel.getPlayer2Name(),
+                            gameViewModel.getPlayer2BitmapImage());
                     break;
             }
-        } else
+        } else if (!hasPicture(requestCode))
             // Go back to main page activity if user does not take picture
             finish();
     }
 
+    /**
+     * @param requestCode The player the picture was going to be taken for
+     * @return True if the player already has a picture, so a cancelled retake is fine
+     */
+    private boolean hasPicture(int requestCode) {
+        if (requestCode == REQUEST_PLAYER1_IMAGE_CAPTURE)
+            return gameViewModel.getPlayer1BitmapImage() != null;
+        else
+            return gameViewModel.getPlayer2BitmapImage() != null;
+    }
+
     /**
      * The onClick function for when an ImageButton is clicked, makes the move by setting the
      * background image.
@@ -167,6 +277,10 @@ public class GamePageActivity extends AppCompatActivity {
     public void placeMove(View view) {
         int tag = Integer.parseInt(view.getTag().toString());
 
+        // Wait for the computer to finish its move
+        if (gameViewModel.isAiThinking())
+            return;
+
         // Don't place move if current position already has a move in it
         if (gameViewModel.checkTag(tag))
             return;
@@ -175,7 +289,10 @@ public class GamePageActivity extends AppCompatActivity {
         if (gameViewModel.getSinglePlayerOption()) {
             ((ImageButton) view).setImageBitmap(gameViewModel.getPlayer1BitmapImage());
             gameViewModel.setPlayer1Turn();
-            moveAI();
+
+            if (!checkGameState())
+                moveAI();
+            return;
         }
         // Multi Player game logic
         else {
@@ -207,35 +324,50 @@ public class GamePageActivity extends AppCompatActivity {
     }
 
     /**
-     * When in Single Player mode, uses the Minimax Algorithm in the GameViewModel class
-     * to help computer decide where to place a move.
+     * When in Single Player mode, asks the GameViewModel for the computer's move. The search runs
+     * on the shared AiScheduler and the move is placed by placeAIMove() when it arrives.
      */
     private void moveAI() {
         if (gameViewModel.getNumOfTurns() == 0)
             return;
 
-        if (gameViewModel.getNumOfTurns() < 9) {
-            int[] position = gameViewModel.findBestMove();
-            int tag = (position[0] * gameViewModel.getCol()) + (position[1] + 1);
-            ImageButton AIImageButton = new ImageButton(this);
-
-            gameViewModel.placeMove(false, position[0], position[1]);
+        if (gameViewModel.getNumOfTurns() < 9)
+            gameViewModel.requestBestMove();
+        else if (!checkGameState())
+            gameViewModel.setPlayer1Turn();
+    }
 
-            for (ImageButton button : imageButtons) {
-                if ((Integer.parseInt(button.getTag().toString())) == tag) {
-                    AIImageButton = button;
-                    AIImageButton.setTag(button.getTag());
-                    break;
-                }
+    /**
+     * Places the computer's move on the board
+     *
+     * @param move The row-major index of the move
+     */
+    private void placeAIMove(int move) {
+        // Log the cold start phases when the first AI move arrives
+        if (StartupTimer.getShared().mark(StartupTimer.FIRST_AI_MOVE))
+            Log.v(TAG, "Startup: " + StartupTimer.getShared().summary());
+
+        int row = move / gameViewModel.getCol();
+        int col = move % gameViewModel.getCol();
+        int tag = move + 1;
+        ImageButton AIImageButton = new ImageButton(this);
+
+        gameViewModel.placeMove(false, row, col);
+
+        for (ImageButton button : imageButtons) {
+            if ((Integer.parseInt(button.getTag().toString())) == tag) {
+                AIImageButton = button;
+                AIImageButton.setTag(button.getTag());
+                break;
             }
+        }
 
-            AIImageButton.setImageResource(R.drawable.computer);
+        AIImageButton.setImageResource(R.drawable.computer);
 
-            gameViewModel.checkTag(Integer.parseInt(AIImageButton.getTag().toString()));
+        gameViewModel.checkTag(Integer.parseInt(AIImageButton.getTag().toString()));
 
-            // Log the ImageButton for the AI move
-            Log.v(TAG, "AI ImageButton: " + AIImageButton.getTag());
-        }
+        // Log the ImageButton for the AI move
+        Log.v(TAG, "AI ImageButton: " + AIImageButton.getTag());
 
         if (!checkGameState())
             gameViewModel.setPlayer1Turn();
@@ -252,15 +384,18 @@ public class GamePageActivity extends AppCompatActivity {
             if (winner == 10) {
                 Toast.makeText(this, "Player 1 wins", Toast.LENGTH_LONG).show();
                 gameViewModel.player1Wins();
+                recordGame(PlayerStats.WIN);
                 resetGameConditions();
                 return true;
             } else if (winner == -10) {
                 Toast.makeText(this, "Player 2 wins", Toast.LENGTH_LONG).show();
                 gameViewModel.player2Wins();
+                recordGame(PlayerStats.LOSS);
                 resetGameConditions();
                 return true;
             } else if (winner == 0 && gameViewModel.getNumOfTurns() == 9) {
                 Toast.makeText(this, "Draw", Toast.LENGTH_LONG).show();
+                recordGame(PlayerStats.DRAW);
                 resetGameConditions();
                 return true;
             }
@@ -268,6 +403,26 @@ public class GamePageActivity extends AppCompatActivity {
         return false;
     }
 
+    /**
+     * Adds the finished game to the players' lifetime statistics and saves them
+     *
+     * @param player1Result PlayerStats.WIN, DRAW or LOSS for player 1
+     */
+    private void recordGame(int player1Result) {
+        gameViewModel.recordGame(player1Result);
+        mProfileStore.saveStats(gameViewModel.getPlayer1Name(),
+                gameViewModel.getPlayer1Stats());
+
+        if (!gameViewModel.getSinglePlayerOption()) {
+            mProfileStore.saveStats(gameViewModel.getPlayer2Name(),
+                    gameViewModel.getPlayer2Stats());
+        }
+
+        // Log player 1's rating after the game
+        Log.v(TAG, gameViewModel.getPlayer1Name() + " rating: "
+                + gameViewModel.getPlayer1Stats().getRating());
+    }
+
     /**
      * Whenever a configuration change occurs and function is called from onCreate(), the board
      * gets repopulated with the images that have been placed on the ImageButton views before the
@@ -17,13 +17,26 @@ public class GameViewModel extends ViewModel {
     private static final char PLAYER_X = 'X';
     private static final char PLAYER_O = 'O';
     private static final String TAG = GameViewModel.class.getName();
+    private static final long AI_TIME_BUDGET_MILLIS = 500;
 
     // Game data
     private char[][] mBoard = new char[ROW][COL];
+    // Warmed up in the background while the main page was shown, if it had time to finish
+    private final GameEngine mEngine = EngineWarmUp.classicEngine();
     private MutableLiveData<Integer> mPlayer1Points;
     private MutableLiveData<Integer> mPlayer2Points;
+    private final MutableLiveData<Integer> mAiMove = new MutableLiveData<>(GameEngine.NO_MOVE);
+    private AiScheduler.Ticket mAiTicket;
+    // Only changed on the main thread, from requestBestMove() until the move is consumed
+    private boolean mAiPending;
+    private String mPlayer1Name;
+    private String mPlayer2Name;
     private Bitmap mPlayer1BitmapImage;
     private Bitmap mPlayer2BitmapImage;
+    private PlayerStats mPlayer1Stats;
+    private PlayerStats mPlayer2Stats;
+    // True once the players' profiles are loaded, until the page has shown them
+    private final MutableLiveData<Boolean> mProfilesLoaded = new MutableLiveData<>(false);
     private int mTurns = 0;
     private boolean mPlayer1Turn = true;
     private boolean mSinglePlayerOption;
@@ -141,119 +154,78 @@ public class GameViewModel extends ViewModel {
     }
 
     /**
-     * Minimax Algorithm to look for a terminal game state (win, lose, or tie), with respect to the
-     * current game state. Player trying to win is the maximizing player looking for a positive score
-     * and player trying to stop the maximizing player, the minimizer, is looking for a negative
-     * score. Both player's scores are adjusted based on the number of turns it took to get that
-     * score.
-     *
-     * @param turns            Current turn or number of moves made so far
-     * @param maximizingPlayer Player who is trying to maximize or minimize the score
-     * @return The score for the respective player
+     * Asks the shared AiScheduler for the computer's move instead of searching on the calling
+     * thread. The GameEngine's Minimax search scores every possible move and the best one is
+     * posted to getAiMove() once it is ready, and the board must not be changed until then. Game
+     * always ties or wins when in hard mode and wins, ties, or loses in easy mode, where the
+     * computer picks the move that would be best for its opponent.
      */
-    private int miniMax(int turns, boolean maximizingPlayer) {
-        int score = checkForWinner();
-
-        // Check for terminal cases (recursive call exit conditions)
-        if (score == 10)
-            return score;
-        else if (score == -10)
-            return score;
-        else if (turns == 9)
-            return 0;
-
-        if (maximizingPlayer) {
-            int bestValue = Integer.MIN_VALUE;
-
-            for (int row = 0; row < ROW; row++) {
-                for (int col = 0; col < COL; col++) {
-                    if (mBoard[row][col] == ' ') {
-                        mBoard[row][col] = PLAYER_X;
-                        bestValue = Math.max
-                                (bestValue, miniMax(turns + 1, false));
-                        mBoard[row][col] = ' ';
+    public void requestBestMove() {
+        byte player = mDifficulty == 0 ? GameEngine.PLAYER_X : GameEngine.PLAYER_O;
+        SearchJob job = SearchJob.forGame(mEngine, player, GameEngine.UNLIMITED_DEPTH);
+
+        mAiPending = true;
+        mAiTicket = AiScheduler.getShared().submit(job, AI_TIME_BUDGET_MILLIS,
+                new AiScheduler.Callback() {
+                    @Override
+                    public void onMoveReady(int move) {
+                        mAiMove.postValue(move);
                     }
-                }
-            }
-            return bestValue - turns;
-        } else {
-            int bestValue = Integer.MAX_VALUE;
+                });
+    }
 
-            for (int row = 0; row < ROW; row++) {
-                for (int col = 0; col < COL; col++) {
-                    if (mBoard[row][col] == ' ') {
-                        mBoard[row][col] = PLAYER_O;
-                        bestValue = Math.min
-                                (bestValue, miniMax(turns + 1, true));
-                        mBoard[row][col] = ' ';
-                    }
-                }
-            }
-            return bestValue + turns;
-        }
+    /**
+     * @return True while a requested AI move hasn't been placed yet, including after the search
+     *         finished but before its move reached the main thread
+     */
+    public boolean isAiThinking() {
+        return mAiPending;
     }
 
     /**
-     * Uses the miniMax() to calculate the score of every possible move, with respect to the current
-     * game state. Compares the scores of all the moves and returns the move with the best score.
-     * This function is used by the game's single player mode to make a move. Game always ties or
-     * wins when in hard mode and wins, ties, or loses in easy mode.
+     * Marks the posted AI move as handled, so it isn't delivered again after a rotation
      *
-     * @return The index (row, col) of where to place the move on the mBoard
+     * @return True if the move should be placed, false if it was posted for a request that was
+     *         cancelled since
      */
-    public int[] findBestMove() {
-        int bestScore = Integer.MAX_VALUE;
-        int worstScore = Integer.MIN_VALUE;
-        int[] movePositionHard = new int[2];
-        int[] movePositionEasy = new int[2];
-
-        // Easy mode
-        if (mDifficulty == 0) {
-            for (int row = 0; row < ROW; row++) {
-                for (int col = 0; col < COL; col++) {
-                    if (mBoard[row][col] == ' ') {
-                        mBoard[row][col] = PLAYER_X;
-
-                        int currentScore = miniMax(mTurns, false);
+    public boolean consumeAiMove() {
+        boolean pending = mAiPending;
+        mAiPending = false;
 
-                        mBoard[row][col] = ' ';
-
-                        if (currentScore > worstScore) {
-                            movePositionEasy[0] = row;
-                            movePositionEasy[1] = col;
-                            worstScore = currentScore;
-                        }
-                    }
-                }
-            }
-            return movePositionEasy;
+        if (pending && mAiTicket != null && mAiTicket.getError() != null) {
+            Log.e(TAG, "AI search failed, playing its fallback move", mAiTicket.getError());
+            reloadEngine();
         }
-        // Hard mode
-        else {
-            for (int row = 0; row < ROW; row++) {
-                for (int col = 0; col < COL; col++) {
-                    if (mBoard[row][col] == ' ') {
-                        mBoard[row][col] = PLAYER_O;
-
-                        int currentScore = miniMax(mTurns, true);
+        mAiTicket = null;
+        mAiMove.setValue(GameEngine.NO_MOVE);
+        return pending;
+    }
 
-                        mBoard[row][col] = ' ';
+    private void cancelAiMove() {
+        if (mAiTicket != null)
+            mAiTicket.cancel();
+        mAiTicket = null;
+        mAiPending = false;
+        mAiMove.setValue(GameEngine.NO_MOVE);
+    }
 
-                        if (currentScore == -10) {
-                            movePositionHard[0] = row;
-                            movePositionHard[1] = col;
+    /**
+     * Loads mBoard into the engine again, for when a failed search may have left it in the middle
+     * of a move
+     */
+    private void reloadEngine() {
+        byte[] cells = new byte[ROW * COL];
 
-                            return movePositionHard;
-                        } else if (currentScore < bestScore) {
-                            movePositionHard[0] = row;
-                            movePositionHard[1] = col;
-                            bestScore = currentScore;
-                        }
-                    }
-                }
+        for (int row = 0; row < ROW; row++) {
+            for (int col = 0; col < COL; col++) {
+                if (mBoard[row][col] == PLAYER_X)
+                    cells[row * COL + col] = GameEngine.PLAYER_X;
+                else if (mBoard[row][col] == PLAYER_O)
+                    cells[row * COL + col] = GameEngine.PLAYER_O;
             }
-            return movePositionHard;
         }
+        mEngine.setPosition(cells);
+        mEngine.clearTable();
     }
 
     /**
@@ -322,6 +294,36 @@ public class GameViewModel extends ViewModel {
             mBoard[row][col] = PLAYER_X;
         else
             mBoard[row][col] = PLAYER_O;
+
+        // Mirror the move in the engine, the AI's move is placed again when its tag gets checked
+        int cell = row * COL + col;
+        if (mEngine.getCell(cell) == GameEngine.EMPTY)
+            mEngine.playAs(cell, turn_X ? GameEngine.PLAYER_X : GameEngine.PLAYER_O);
+    }
+
+    /**
+     * Loads the profiles of the named players. The statistics are read at once, the thumbnails in
+     * the background, and getProfilesLoaded() turns true when both are in.
+     */
+    public void loadProfiles(PlayerProfileStore store) {
+        String[] names;
+        mPlayer1Stats = store.loadStats(mPlayer1Name);
+        if (mSinglePlayerOption) {
+            names = new String[]{mPlayer1Name};
+        } else {
+            mPlayer2Stats = store.loadStats(mPlayer2Name);
+            names = new String[]{mPlayer1Name, mPlayer2Name};
+        }
+
+        store.loadThumbnails(names, new PlayerProfileStore.ThumbnailCallback() {
+            @Override
+            public void onThumbnailsLoaded(Bitmap[] thumbnails) {
+                mPlayer1BitmapImage = thumbnails[0];
+                if (thumbnails.length > 1)
+                    mPlayer2BitmapImage = thumbnails[1];
+                mProfilesLoaded.setValue(true);
+            }
+        });
     }
 
     /** Resets the board and game conditions to initial state */
@@ -331,6 +333,31 @@ public class GameViewModel extends ViewModel {
         mTurns = 0;
         mPlayer1Turn = true;
         setBoard();
+        cancelAiMove();
+        mEngine.reset();
+    }
+
+    @Override
+    protected void onCleared() {
+        cancelAiMove();
+    }
+
+    /**
+     * Adds a finished game to the players' lifetime statistics. Player 1 plays the computer in
+     * single player mode and player 2 in multi player mode.
+     *
+     * @param player1Result PlayerStats.WIN, DRAW or LOSS for player 1
+     */
+    public void recordGame(int player1Result) {
+        if (mSinglePlayerOption) {
+            int mode = mDifficulty == 0 ? PlayerStats.MODE_EASY : PlayerStats.MODE_HARD;
+            mPlayer1Stats.recordGame(mode, player1Result, PlayerStats.computerRating(mode));
+        } else {
+            int player1Rating = mPlayer1Stats.getRating();
+            mPlayer1Stats.recordGame(PlayerStats.MODE_MULTI_PLAYER, player1Result,
+                    mPlayer2Stats.getRating());
+            mPlayer2Stats.recordGame(PlayerStats.MODE_MULTI_PLAYER, -player1Result, player1Rating);
+        }
     }
 
     /** Update the points for player 1 when they win */
@@ -368,6 +395,30 @@ public class GameViewModel extends ViewModel {
         return mPlayer2Points;
     }
 
+    public MutableLiveData<Integer> getAiMove() {
+        return mAiMove;
+    }
+
+    public MutableLiveData<Boolean> getProfilesLoaded() {
+        return mProfilesLoaded;
+    }
+
+    public String getPlayer1Name() {
+        return mPlayer1Name;
+    }
+
+    public void setPlayer1Name(String mPlayer1Name) {
+        this.mPlayer1Name = mPlayer1Name;
+    }
+
+    public String getPlayer2Name() {
+        return mPlayer2Name;
+    }
+
+    public void setPlayer2Name(String mPlayer2Name) {
+        this.mPlayer2Name = mPlayer2Name;
+    }
+
     public Bitmap getPlayer1BitmapImage() {
         return mPlayer1BitmapImage;
     }
@@ -384,6 +435,22 @@ public class GameViewModel extends ViewModel {
         this.mPlayer2BitmapImage = mPlayer2BitmapImage;
     }
 
+    public PlayerStats getPlayer1Stats() {
+        return mPlayer1Stats;
+    }
+
+    public void setPlayer1Stats(PlayerStats mPlayer1Stats) {
+        this.mPlayer1Stats = mPlayer1Stats;
+    }
+
+    public PlayerStats getPlayer2Stats() {
+        return mPlayer2Stats;
+    }
+
+    public void setPlayer2Stats(PlayerStats mPlayer2Stats) {
+        this.mPlayer2Stats = mPlayer2Stats;
+    }
+
     public int getNumOfTurns() {
         return mTurns;
     }
@@ -7,6 +7,7 @@ import androidx.fragment.app.DialogFragment;
 import android.content.Intent;
 import android.graphics.drawable.AnimationDrawable;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 
@@ -17,27 +18,41 @@ public class MainActivity extends AppCompatActivity {
     private boolean mSinglePlayerOption = true;
     // Constant key to map the value of game mode boolean
     public static final String SINGLE_PLAYER = "com.example.tictactoe.SINGLE_PLAYER";
+    private static final String TAG = MainActivity.class.getName();
+    private static final String DIALOG_TAG = "game dialog";
     DialogFragment dialogFragment;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        final StartupTimer startupTimer = StartupTimer.getShared();
+
+        // Get the engines ready while the user picks a game mode
+        EngineWarmUp.startShared();
+
         setContentView(R.layout.main_page);
 
-        // Animate gradient background for the main page
-        ConstraintLayout constraintLayout = findViewById(R.id.main_page_layout);
-        AnimationDrawable animationDrawable = (AnimationDrawable) constraintLayout.getBackground();
-        animationDrawable.setEnterFadeDuration(2500);
-        animationDrawable.setExitFadeDuration(4500);
-        animationDrawable.start();
+        // Animate gradient background for the main page, once the first frame has been laid out
+        final ConstraintLayout constraintLayout = findViewById(R.id.main_page_layout);
+        constraintLayout.post(new Runnable() {
+            @Override
+            public void run() {
+                if (startupTimer.mark(StartupTimer.FIRST_FRAME))
+                    Log.v(TAG, "Startup: " + startupTimer.summary());
 
-        // Show dialog box to user as soon as game opens up
-        dialogFragment = new GameDialogFragment();
-        dialogFragment.show(getSupportFragmentManager(), "game dialog");
+                AnimationDrawable animationDrawable =
+                        (AnimationDrawable) constraintLayout.getBackground();
+                animationDrawable.setEnterFadeDuration(2500);
+                animationDrawable.setExitFadeDuration(4500);
+                animationDrawable.start();
+            }
+        });
 
         Button mEasyButton = findViewById(R.id.single_player_easy_button);
         Button mHardButton = findViewById(R.id.single_player_hard_button);
         Button mMultiplayerButton = findViewById(R.id.multiplayer_player_button);
+        Button mUltimateButton = findViewById(R.id.ultimate_button);
+        startupTimer.mark(StartupTimer.MAIN_CREATED);
 
         // Set click listeners on the game mode buttons
         // Pass in 0 to the intent for Easy mode selected
@@ -71,16 +86,29 @@ public class MainActivity extends AppCompatActivity {
                 view.getContext().startActivity(intent);
             }
         });
+
+        // Ultimate Tic Tac Toe against the computer
+        mUltimateButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                Intent intent = new Intent(view.getContext(), UltimateGamePageActivity.class);
+                view.getContext().startActivity(intent);
+            }
+        });
     }
 
     /**
-     * Display dialog box again when user navigates back to the main page, as the message in it is
-     * essential for getting the app to run as intended
+     * Display dialog box when the game opens up and again when user navigates back to the main
+     * page, as the message in it is essential for getting the app to run as intended. Skipped if
+     * the dialog is already showing, like after a configuration change.
      */
     @Override
     public void onResume() {
         super.onResume();
-        dialogFragment = new GameDialogFragment();
-        dialogFragment.show(getSupportFragmentManager(), "game dialog");
+
+        if (getSupportFragmentManager().findFragmentByTag(DIALOG_TAG) == null) {
+            dialogFragment = new GameDialogFragment();
+            dialogFragment.show(getSupportFragmentManager(), DIALOG_TAG);
+        }
     }
 }
@@ -0,0 +1,170 @@
+package com.example.tictactoe;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Pattern weights learned from self-play by ModelTrainer, used by GameEngine to order moves and
+ * to score the leaves of depth-limited searches.
+ *
+ * All weights depend only on how many moves each player has in a window, so one model works on
+ * every board size with the same win length:
+ * - lineWeights[c] is the worth of a window holding c moves of one player and none of the other,
+ *   fed to a PatternEvaluator for the leaf evaluation.
+ * - attackWeights[c] is added to a cell's ordering score for every window through the cell that
+ *   holds c moves of the player to move and none of the opponent's.
+ * - defenseWeights[c] likewise for windows holding c opponent moves and none of the mover's, that
+ *   playing the cell would block.
+ *
+ * Models are stored as quantized 16-bit weights, see write() for the format.
+ *
+ * Models pay off in depth-limited searches on big boards. The app's 3 by 3 game is searched to
+ * the end, where ordering the moves by a model costs more time than it saves, so the app doesn't
+ * ship one.
+ */
+public class MoveModel {
+    /** "TTTM" */
+    public static final int MAGIC = 0x5454544D;
+    public static final int VERSION = 1;
+
+    private final int mWinLength;
+    private final int[] mLineWeights;
+    private final int[] mAttackWeights;
+    private final int[] mDefenseWeights;
+
+    // Ordering score per window index (xCount * (winLength + 1) + oCount), for each player
+    private final int[] mXOrderScores;
+    private final int[] mOOrderScores;
+
+    /**
+     * @param winLength Number of moves in a line needed to win
+     * @param lineWeights    Worth of windows by number of moves, winLength entries
+     * @param attackWeights  Ordering bonus of windows the move extends, winLength entries
+     * @param defenseWeights Ordering bonus of windows the move blocks, winLength entries
+     */
+    public MoveModel(int winLength, int[] lineWeights, int[] attackWeights,
+                     int[] defenseWeights) {
+        if (winLength < 1 || lineWeights.length != winLength
+                || attackWeights.length != winLength || defenseWeights.length != winLength)
+            throw new IllegalArgumentException("Expected " + winLength + " weights per table");
+
+        mWinLength = winLength;
+        mLineWeights = lineWeights.clone();
+        mAttackWeights = attackWeights.clone();
+        mDefenseWeights = defenseWeights.clone();
+
+        int stride = winLength + 1;
+        mXOrderScores = new int[stride * stride];
+        mOOrderScores = new int[stride * stride];
+
+        for (int count = 0; count < winLength; count++) {
+            mXOrderScores[count * stride] += attackWeights[count];
+            mXOrderScores[count] += defenseWeights[count];
+            mOOrderScores[count] += attackWeights[count];
+            mOOrderScores[count * stride] += defenseWeights[count];
+        }
+    }
+
+    /**
+     * Reads a model written by write()
+     *
+     * @throws IOException If the stream ends early or doesn't hold a model
+     */
+    public static MoveModel read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC)
+            throw new IOException("Not a move model");
+
+        int version = data.readUnsignedShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported move model version " + version);
+
+        int winLength = data.readUnsignedByte();
+        int scale = data.readInt();
+        if (winLength < 1 || scale < 1)
+            throw new IOException("Invalid move model header");
+
+        int[] lineWeights = readWeights(data, winLength, scale);
+        int[] attackWeights = readWeights(data, winLength, scale);
+        int[] defenseWeights = readWeights(data, winLength, scale);
+        return new MoveModel(winLength, lineWeights, attackWeights, defenseWeights);
+    }
+
+    private static int[] readWeights(DataInputStream data, int winLength, int scale)
+            throws IOException {
+        int[] weights = new int[winLength];
+        for (int count = 0; count < winLength; count++)
+            weights[count] = data.readShort() * scale;
+        return weights;
+    }
+
+    /**
+     * Writes the model as big-endian binary: the int MAGIC, the unsigned short VERSION, the win
+     * length as a byte, an int scale, then the line, attack and defense weights as winLength
+     * shorts each. Every weight is stored divided by the scale, which is the smallest that fits
+     * all weights in a short, so weights lose some precision only when they are very large.
+     */
+    public void write(OutputStream out) throws IOException {
+        int maxWeight = Math.max(maxAbs(mLineWeights),
+                Math.max(maxAbs(mAttackWeights), maxAbs(mDefenseWeights)));
+        int scale = Math.max(1, (maxWeight + Short.MAX_VALUE - 1) / Short.MAX_VALUE);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeByte(mWinLength);
+        data.writeInt(scale);
+        writeWeights(data, mLineWeights, scale);
+        writeWeights(data, mAttackWeights, scale);
+        writeWeights(data, mDefenseWeights, scale);
+        data.flush();
+    }
+
+    private static void writeWeights(DataOutputStream data, int[] weights, int scale)
+            throws IOException {
+        for (int weight : weights)
+            data.writeShort(Math.round((float) weight / scale));
+    }
+
+    private static int maxAbs(int[] weights) {
+        int max = 0;
+        for (int weight : weights)
+            max = Math.max(max, Math.abs(weight));
+        return max;
+    }
+
+    /**
+     * @return A new evaluator scoring leaves with the model's line weights
+     */
+    public PatternEvaluator createEvaluator() {
+        return new PatternEvaluator(mWinLength, mLineWeights);
+    }
+
+    /**
+     * Ordering scores laid out like PatternEvaluator.getWindowScores(), from the point of view of
+     * the given player being about to move. A cell's score is the sum over its windows.
+     */
+    int[] getOrderScores(byte player) {
+        return player == GameEngine.PLAYER_X ? mXOrderScores : mOOrderScores;
+    }
+
+    public int getWinLength() {
+        return mWinLength;
+    }
+
+    public int[] getLineWeights() {
+        return mLineWeights.clone();
+    }
+
+    public int[] getAttackWeights() {
+        return mAttackWeights.clone();
+    }
+
+    public int[] getDefenseWeights() {
+        return mDefenseWeights.clone();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.tictactoe;
+
+/**
+ * Static evaluation of K in a row positions, used by GameEngine to score the positions where a
+ * depth-limited search stops before the end of the game.
+ *
+ * Every window (run of K cells along a line) that holds moves of only one player is a threat for
+ * that player, worth more the more moves it holds. Patterns fall out of the windows on their own:
+ * an open four (.XXXX.) lies in two windows holding four moves while a four blocked on one side
+ * lies in only one, and broken patterns like XX.X count the same as XXX. inside their window.
+ * Windows holding moves of both players can never be won and are worth nothing.
+ *
+ * The score of each window only depends on the number of X and O moves in it, so the engine keeps
+ * a running total and updates it for the windows through the last move only, instead of rescanning
+ * the board.
+ */
+public class PatternEvaluator {
+    // Leaves the evaluation well clear of the scores for won games
+    public static final int MAX_EVALUATION = GameEngine.WIN_SCORE / 2;
+
+    // Each extra move in a window multiplies its worth by this much
+    private static final int DEFAULT_GROWTH = 8;
+
+    // Default weights stop growing here, a single window is then already worth as much as the
+    // clamped evaluation of a whole board, and the engine's running total stays inside an int
+    private static final int MAX_DEFAULT_WEIGHT = MAX_EVALUATION;
+
+    private final int mWinLength;
+    private final int[] mWindowScores;
+
+    /**
+     * Creates an evaluator with the default weights, 1, 8, 64, 512... for windows holding one,
+     * two, three, four... moves of a single player, up to MAX_DEFAULT_WEIGHT
+     *
+     * @param winLength Number of moves in a line needed to win
+     */
+    public PatternEvaluator(int winLength) {
+        this(winLength, defaultWeights(winLength));
+    }
+
+    /**
+     * @param winLength   Number of moves in a line needed to win
+     * @param lineWeights lineWeights[c] is the worth of a window holding c moves of one player and
+     *                    none of the other, for c from 0 to winLength - 1
+     */
+    public PatternEvaluator(int winLength, int[] lineWeights) {
+        if (lineWeights.length != winLength)
+            throw new IllegalArgumentException("Expected " + winLength + " weights, got "
+                    + lineWeights.length);
+
+        mWinLength = winLength;
+        mWindowScores = new int[(winLength + 1) * (winLength + 1)];
+
+        // Full windows end the game, the engine scores those itself
+        for (int count = 1; count < winLength; count++) {
+            mWindowScores[index(count, 0)] = lineWeights[count];
+            mWindowScores[index(0, count)] = -lineWeights[count];
+        }
+    }
+
+    private static int[] defaultWeights(int winLength) {
+        int[] weights = new int[winLength];
+        long weight = 1;
+
+        for (int count = 1; count < winLength; count++) {
+            weights[count] = (int) weight;
+            weight = Math.min(weight * DEFAULT_GROWTH, MAX_DEFAULT_WEIGHT);
+        }
+        return weights;
+    }
+
+    /**
+     * Scores a whole board from scratch. The engine updates its evaluation incrementally, this is
+     * the reference it has to agree with.
+     *
+     * @return The evaluation of the engine's current position for PLAYER_X
+     */
+    public int evaluate(GameEngine engine) {
+        int total = 0;
+
+        for (int window = 0; window < engine.getWindowCount(); window++) {
+            int xCount = 0;
+            int oCount = 0;
+
+            for (int i = 0; i < mWinLength; i++) {
+                byte cell = engine.getCell(engine.getWindowCell(window, i));
+
+                if (cell == GameEngine.PLAYER_X)
+                    xCount++;
+                else if (cell == GameEngine.PLAYER_O)
+                    oCount++;
+            }
+            total += windowScore(xCount, oCount);
+        }
+        return total;
+    }
+
+    /**
+     * @return The worth of a window for PLAYER_X given how many moves each player has in it
+     */
+    public int windowScore(int xCount, int oCount) {
+        return mWindowScores[index(xCount, oCount)];
+    }
+
+    /**
+     * Window scores laid out so that an X move adds winLength + 1 to the index of a window and an
+     * O move adds 1
+     */
+    int[] getWindowScores() {
+        return mWindowScores;
+    }
+
+    public int getWinLength() {
+        return mWinLength;
+    }
+
+    private int index(int xCount, int oCount) {
+        return xCount * (mWinLength + 1) + oCount;
+    }
+
+    /**
+     * Keeps an evaluation inside the range reserved for positions that aren't won yet
+     */
+    static int clamp(int evaluation) {
+        return Math.max(-MAX_EVALUATION, Math.min(MAX_EVALUATION, evaluation));
+    }
+}
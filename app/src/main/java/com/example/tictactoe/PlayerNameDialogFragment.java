@@ -0,0 +1,123 @@
+package com.example.tictactoe;
+
+import android.annotation.SuppressLint;
+import android.app.AlertDialog;
+import android.app.Dialog;
+import android.content.DialogInterface;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.DialogFragment;
+
+/**
+ * Dialog box that asks a player for their name before a game, the name picks the player's
+ * profile. The names of players who already have a profile are listed when the name field is
+ * tapped and suggested while typing. The activity showing the dialog has to implement Listener.
+ */
+public class PlayerNameDialogFragment extends DialogFragment {
+    private static final String ARG_PLAYER = "player";
+    private static final String ARG_TAKEN_NAME = "taken_name";
+
+    /**
+     * Receives the name the player chose
+     */
+    public interface Listener {
+        /**
+         * @param player 1 or 2
+         * @param name   The cleaned up name, see PlayerNames.clean()
+         */
+        void onPlayerNameChosen(int player, String name);
+
+        /**
+         * Called when the player backs out of the dialog instead
+         */
+        void onPlayerNameCancelled();
+    }
+
+    // Required empty constructor
+    public PlayerNameDialogFragment() {
+    }
+
+    /**
+     * @param player    1 or 2, shown in the title
+     * @param takenName The other player's name, which can't be chosen again, or null
+     */
+    public static PlayerNameDialogFragment newInstance(int player, String takenName) {
+        Bundle args = new Bundle();
+        args.putInt(ARG_PLAYER, player);
+        args.putString(ARG_TAKEN_NAME, takenName);
+
+        PlayerNameDialogFragment fragment = new PlayerNameDialogFragment();
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    @SuppressLint("InflateParams")
+    @NonNull
+    @Override
+    public Dialog onCreateDialog(Bundle savedInstanceState) {
+        final int player = getArguments().getInt(ARG_PLAYER);
+        final String takenName = getArguments().getString(ARG_TAKEN_NAME);
+
+        View view = requireActivity().getLayoutInflater()
+                .inflate(R.layout.dialog_player_name, null);
+        final AutoCompleteTextView nameView = view.findViewById(R.id.player_name_text);
+        nameView.setAdapter(new ArrayAdapter<>(requireContext(),
+                android.R.layout.simple_dropdown_item_1line,
+                new PlayerProfileStore(requireContext()).loadPlayerNames()));
+        nameView.setThreshold(1);
+
+        // Tapping the empty field lists every known player
+        nameView.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                nameView.showDropDown();
+            }
+        });
+
+        // Make the dialog only be closeable through its buttons
+        setCancelable(false);
+
+        final AlertDialog dialog = new AlertDialog.Builder(getActivity(), R.style.AppDialogTheme)
+                .setTitle(getString(R.string.player_name_title, player))
+                .setView(view)
+                .setPositiveButton(R.string.ok, null)
+                .setNegativeButton(R.string.cancel, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int id) {
+                        ((Listener) requireActivity()).onPlayerNameCancelled();
+                    }
+                })
+                .create();
+
+        // Check the name before the dialog closes, so a bad name can be fixed in place
+        dialog.setOnShowListener(new DialogInterface.OnShowListener() {
+            @Override
+            public void onShow(DialogInterface dialogInterface) {
+                dialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(
+                        new View.OnClickListener() {
+                            @Override
+                            public void onClick(View view) {
+                                String name = PlayerNames.clean(nameView.getText().toString());
+
+                                if (name.isEmpty()) {
+                                    nameView.setError(getString(R.string.player_name_empty));
+                                } else if (takenName != null && PlayerNames.toProfileId(name)
+                                        .equals(PlayerNames.toProfileId(takenName))) {
+                                    nameView.setError(getString(R.string.player_name_taken));
+                                } else {
+                                    Listener listener = (Listener) requireActivity();
+                                    dismiss();
+                                    listener.onPlayerNameChosen(player, name);
+                                }
+                            }
+                        });
+            }
+        });
+
+        return dialog;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tictactoe;
+
+import java.util.Locale;
+
+/**
+ * Player names, which identify the players' profiles. A name is shown as the player typed it,
+ * while its profile id ignores case and extra spaces, so "Ann" and " ann " share a profile.
+ */
+public class PlayerNames {
+    // Longest name kept, longer names are cut
+    public static final int MAX_LENGTH = 20;
+
+    // Escapes every character of a profile id that isn't a lowercase letter or a digit
+    private static final char ESCAPE = '_';
+
+    private PlayerNames() {
+    }
+
+    /**
+     * @return The name without white space at its ends, inner runs of white space collapsed to
+     *         one space and cut to MAX_LENGTH, the empty string for null
+     */
+    public static String clean(String name) {
+        if (name == null)
+            return "";
+
+        String cleaned = name.trim().replaceAll("\\s+", " ");
+        if (cleaned.length() > MAX_LENGTH)
+            cleaned = cleaned.substring(0, MAX_LENGTH).trim();
+        return cleaned;
+    }
+
+    /**
+     * @return The profile id of a name, the same for names that only differ in case or white
+     *         space, different otherwise. It is made of lowercase letters, digits and ESCAPE only,
+     *         so it can be used in file names and preference keys.
+     */
+    public static String toProfileId(String name) {
+        String cleaned = clean(name).toLowerCase(Locale.ROOT);
+        StringBuilder id = new StringBuilder(cleaned.length());
+
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))
+                id.append(c);
+            else
+                id.append(ESCAPE).append(String.format(Locale.ROOT, "%04x", (int) c));
+        }
+        return id.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.tictactoe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the players' profiles on the device, so returning players don't have to take a new
+ * picture. A profile belongs to a player name and is stored under the name's
+ * PlayerNames.toProfileId(). Each profile is the name as the player typed it and the player's
+ * PlayerStats, kept in SharedPreferences, and a photo thumbnail, saved once as a PNG in the app's
+ * cache directory.
+ *
+ * The system may clear the cache, in which case loadThumbnails() hands back null and the player
+ * is asked for a new picture, while their statistics are kept.
+ */
+public class PlayerProfileStore {
+    private static final String TAG = PlayerProfileStore.class.getName();
+
+    private static final String PREFERENCES_NAME = "player_profiles";
+    private static final String NAME_KEY_PREFIX = "name_";
+    private static final String STATS_KEY_PREFIX = "stats_";
+    private static final String THUMBNAIL_DIRECTORY = "profiles";
+    private static final String THUMBNAIL_SUFFIX = ".png";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Longest side of a saved thumbnail in pixels
+    private static final int THUMBNAIL_SIZE = 256;
+
+    // Thumbnails are read and written off the main thread, one at a time, so a load sees every
+    // save made before it
+    private static final Executor sDiskExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Receives thumbnails loaded in the background, on the main thread
+     */
+    public interface ThumbnailCallback {
+        /**
+         * @param thumbnails The players' thumbnails in the order their names were given, null for
+         *                   a player who has none
+         */
+        void onThumbnailsLoaded(Bitmap[] thumbnails);
+    }
+
+    private final SharedPreferences mPreferences;
+    private final File mThumbnailDirectory;
+
+    public PlayerProfileStore(Context context) {
+        Context appContext = context.getApplicationContext();
+        mPreferences = appContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        mThumbnailDirectory = new File(appContext.getCacheDir(), THUMBNAIL_DIRECTORY);
+    }
+
+    /**
+     * @return The names of every player with a profile, in alphabetical order
+     */
+    public List<String> loadPlayerNames() {
+        List<String> names = new ArrayList<>();
+
+        for (Map.Entry<String, ?> entry : mPreferences.getAll().entrySet()) {
+            if (entry.getKey().startsWith(NAME_KEY_PREFIX))
+                names.add((String) entry.getValue());
+        }
+        Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    /**
+     * Adds a player to the names returned by loadPlayerNames(), or updates how an existing
+     * player's name is written
+     */
+    public void savePlayerName(String playerName) {
+        mPreferences.edit().putString(NAME_KEY_PREFIX + PlayerNames.toProfileId(playerName),
+                PlayerNames.clean(playerName)).apply();
+    }
+
+    /**
+     * Decodes the players' saved thumbnails in the background and hands them to the callback on
+     * the main thread
+     */
+    public void loadThumbnails(final String[] playerNames, final ThumbnailCallback callback) {
+        sDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap[] thumbnails = new Bitmap[playerNames.length];
+                for (int i = 0; i < playerNames.length; i++) {
+                    File file = thumbnailFile(playerNames[i]);
+                    if (file.exists())
+                        thumbnails[i] = BitmapFactory.decodeFile(file.getPath());
+                }
+
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onThumbnailsLoaded(thumbnails);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Saves a player's picture, scaled down to a thumbnail. The file is written in the background
+     * and replaces the old one only once it is complete.
+     */
+    public void saveThumbnail(final String playerName, Bitmap picture) {
+        final Bitmap thumbnail = scaleToThumbnail(picture);
+        final String playerId = PlayerNames.toProfileId(playerName);
+
+        sDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File file = thumbnailFile(playerName);
+                File temp = new File(mThumbnailDirectory, playerId + TEMP_SUFFIX);
+
+                if (!mThumbnailDirectory.isDirectory() && !mThumbnailDirectory.mkdirs()) {
+                    Log.e(TAG, "Can't create " + mThumbnailDirectory);
+                    return;
+                }
+
+                try {
+                    FileOutputStream out = new FileOutputStream(temp);
+                    try {
+                        thumbnail.compress(Bitmap.CompressFormat.PNG, 100, out);
+                    } finally {
+                        out.close();
+                    }
+
+                    if (!temp.renameTo(file))
+                        Log.e(TAG, "Can't replace " + file);
+                } catch (IOException e) {
+                    Log.e(TAG, "Can't save thumbnail of " + playerName, e);
+                }
+            }
+        });
+    }
+
+    private static Bitmap scaleToThumbnail(Bitmap picture) {
+        int longestSide = Math.max(picture.getWidth(), picture.getHeight());
+        if (longestSide <= THUMBNAIL_SIZE)
+            return picture;
+
+        float scale = (float) THUMBNAIL_SIZE / longestSide;
+        return Bitmap.createScaledBitmap(picture, Math.round(picture.getWidth() * scale),
+                Math.round(picture.getHeight() * scale), true);
+    }
+
+    /**
+     * @return The player's statistics, new statistics for a player who hasn't played yet
+     */
+    public PlayerStats loadStats(String playerName) {
+        return PlayerStats.decode(mPreferences.getString(statsKey(playerName), null));
+    }
+
+    /**
+     * Saves a player's statistics, the preferences file is written in the background
+     */
+    public void saveStats(String playerName, PlayerStats stats) {
+        mPreferences.edit().putString(statsKey(playerName), stats.encode()).apply();
+    }
+
+    private static String statsKey(String playerName) {
+        return STATS_KEY_PREFIX + PlayerNames.toProfileId(playerName);
+    }
+
+    private File thumbnailFile(String playerName) {
+        return new File(mThumbnailDirectory,
+                PlayerNames.toProfileId(playerName) + THUMBNAIL_SUFFIX);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.tictactoe;
+
+/**
+ * Lifetime statistics of one player: wins, losses and draws per game mode, the current and longest
+ * streaks, and an Elo rating. Every finished game updates the totals in place, nothing is
+ * recomputed from the game history, which isn't kept.
+ */
+public class PlayerStats {
+    // Game modes
+    public static final int MODE_EASY = 0;
+    public static final int MODE_HARD = 1;
+    public static final int MODE_MULTI_PLAYER = 2;
+    public static final int MODE_ULTIMATE = 3;
+    public static final int MODE_COUNT = 4;
+
+    // Game results from the player's point of view
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    public static final int INITIAL_RATING = 1200;
+
+    // Rating points at stake in one game
+    private static final int K_FACTOR = 32;
+
+    // Ratings the computer plays at in each mode, multi player games are rated against the opponent
+    private static final int[] COMPUTER_RATINGS = {1000, 1600, INITIAL_RATING, 1500};
+
+    // Prefix of the encoded form, bumped when the fields change
+    private static final String ENCODING_VERSION = "1";
+    private static final String SEPARATOR = ",";
+
+    private final int[] mWins = new int[MODE_COUNT];
+    private final int[] mLosses = new int[MODE_COUNT];
+    private final int[] mDraws = new int[MODE_COUNT];
+    private int mGamesPlayed;
+    private int mStreak;            // Wins in a row if positive, losses in a row if negative
+    private int mLongestWinStreak;
+    private int mRating = INITIAL_RATING;
+
+    /**
+     * Adds a finished game to the statistics
+     *
+     * @param mode           One of the MODE constants
+     * @param result         WIN, DRAW or LOSS for this player
+     * @param opponentRating Rating of the opponent before the game
+     */
+    public void recordGame(int mode, int result, int opponentRating) {
+        if (mode < 0 || mode >= MODE_COUNT)
+            throw new IllegalArgumentException("Unknown mode " + mode);
+
+        if (result == WIN) {
+            mWins[mode]++;
+            mStreak = mStreak > 0 ? mStreak + 1 : 1;
+            mLongestWinStreak = Math.max(mLongestWinStreak, mStreak);
+        } else if (result == LOSS) {
+            mLosses[mode]++;
+            mStreak = mStreak < 0 ? mStreak - 1 : -1;
+        } else if (result == DRAW) {
+            mDraws[mode]++;
+            mStreak = 0;
+        } else
+            throw new IllegalArgumentException("Unknown result " + result);
+
+        mGamesPlayed++;
+
+        double expected = 1 / (1 + Math.pow(10, (opponentRating - mRating) / 400.0));
+        double score = (result + 1) / 2.0;
+        mRating += (int) Math.round(K_FACTOR * (score - expected));
+    }
+
+    /**
+     * @return The rating the computer plays at in a mode
+     */
+    public static int computerRating(int mode) {
+        return COMPUTER_RATINGS[mode];
+    }
+
+    /**
+     * @return The statistics as a short string that decode() turns back into equal statistics
+     */
+    public String encode() {
+        StringBuilder builder = new StringBuilder(ENCODING_VERSION);
+
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            builder.append(SEPARATOR).append(mWins[mode])
+                    .append(SEPARATOR).append(mLosses[mode])
+                    .append(SEPARATOR).append(mDraws[mode]);
+        }
+        builder.append(SEPARATOR).append(mStreak)
+                .append(SEPARATOR).append(mLongestWinStreak)
+                .append(SEPARATOR).append(mRating);
+        return builder.toString();
+    }
+
+    /**
+     * @param encoded A string from encode(), or null
+     * @return The decoded statistics, new statistics if the string is null or can't be decoded
+     */
+    public static PlayerStats decode(String encoded) {
+        PlayerStats stats = new PlayerStats();
+        if (encoded == null)
+            return stats;
+
+        String[] fields = encoded.split(SEPARATOR);
+        if (fields.length != 1 + MODE_COUNT * 3 + 3 || !fields[0].equals(ENCODING_VERSION))
+            return stats;
+
+        try {
+            int field = 1;
+            for (int mode = 0; mode < MODE_COUNT; mode++) {
+                stats.mWins[mode] = Integer.parseInt(fields[field++]);
+                stats.mLosses[mode] = Integer.parseInt(fields[field++]);
+                stats.mDraws[mode] = Integer.parseInt(fields[field++]);
+                stats.mGamesPlayed += stats.mWins[mode] + stats.mLosses[mode] + stats.mDraws[mode];
+            }
+            stats.mStreak = Integer.parseInt(fields[field++]);
+            stats.mLongestWinStreak = Integer.parseInt(fields[field++]);
+            stats.mRating = Integer.parseInt(fields[field]);
+        } catch (NumberFormatException e) {
+            return new PlayerStats();
+        }
+        return stats;
+    }
+
+    /**
+     * Getters for member variables below
+     */
+    public int getWins(int mode) {
+        return mWins[mode];
+    }
+
+    public int getLosses(int mode) {
+        return mLosses[mode];
+    }
+
+    public int getDraws(int mode) {
+        return mDraws[mode];
+    }
+
+    public int getGamesPlayed() {
+        return mGamesPlayed;
+    }
+
+    public int getStreak() {
+        return mStreak;
+    }
+
+    public int getLongestWinStreak() {
+        return mLongestWinStreak;
+    }
+
+    public int getRating() {
+        return mRating;
+    }
+}
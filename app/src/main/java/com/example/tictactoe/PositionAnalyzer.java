@@ -0,0 +1,198 @@
+package com.example.tictactoe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyzes large batches of positions offline, without going through a GameViewModel. Positions
+ * that are rotations or mirror images of each other are only searched once, the work is spread
+ * over a fixed pool of threads and each thread keeps its own GameEngine, so the transposition
+ * table built up for one position is reused by the next.
+ *
+ * Positions are encoded as strings of size * size characters in row-major order: 'X' and 'O' for
+ * moves and '.', '-' or ' ' for empty cells. X always moves first, so the side to move follows
+ * from the number of moves on the board.
+ *
+ * An analyzer works on one batch at a time, analyze() shouldn't be called from several threads at
+ * once.
+ */
+public class PositionAnalyzer {
+    public static final char EMPTY_CHAR = '.';
+
+    private final int mSize;
+    private final int mMaxDepth;
+    private final ExecutorService mExecutor;
+    private final GameEngine[] mEngines;
+    private final GameEngine mCanonicalEngine;
+
+    /**
+     * Creates an analyzer that uses one thread per available processor
+     *
+     * @param size      Number of rows and columns on the board
+     * @param winLength Number of moves in a line needed to win
+     * @param maxDepth  Number of moves to look ahead, GameEngine.UNLIMITED_DEPTH for a full search
+     */
+    public PositionAnalyzer(int size, int winLength, int maxDepth) {
+        this(size, winLength, maxDepth, Runtime.getRuntime().availableProcessors());
+    }
+
+    public PositionAnalyzer(int size, int winLength, int maxDepth, int threadCount) {
+        mSize = size;
+        mMaxDepth = maxDepth;
+        mExecutor = Executors.newFixedThreadPool(threadCount);
+        mEngines = new GameEngine[threadCount];
+        mCanonicalEngine = new GameEngine(size, winLength);
+
+        for (int i = 0; i < threadCount; i++)
+            mEngines[i] = new GameEngine(size, winLength);
+    }
+
+    /**
+     * Analyzes every position in the given order
+     *
+     * @param positions Encoded positions, see the class description for the format
+     * @return One result per position, in the same order
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public List<AnalysisResult> analyze(Iterable<String> positions) throws InterruptedException {
+        List<String> list = new ArrayList<>();
+        for (String position : positions)
+            list.add(position);
+
+        return Arrays.asList(analyze(list.toArray(new String[list.size()])));
+    }
+
+    /**
+     * Analyzes every position in the given order
+     *
+     * @param positions Encoded positions, see the class description for the format
+     * @return One result per position, in the same order
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public AnalysisResult[] analyze(String[] positions) throws InterruptedException {
+        int[] uniqueIndex = new int[positions.length];
+        int[] symmetry = new int[positions.length];
+        final List<byte[]> uniquePositions = new ArrayList<>();
+        Map<Long, Integer> seen = new HashMap<>();
+
+        // Group the positions by their canonical hash so each group is searched only once
+        for (int i = 0; i < positions.length; i++) {
+            byte[] cells = decode(positions[i]);
+            mCanonicalEngine.setPosition(cells);
+            symmetry[i] = mCanonicalEngine.canonicalSymmetry();
+
+            long hash = mCanonicalEngine.canonicalHash();
+            Integer index = seen.get(hash);
+
+            if (index == null) {
+                index = uniquePositions.size();
+                seen.put(hash, index);
+                uniquePositions.add(transform(cells, symmetry[i]));
+            }
+            uniqueIndex[i] = index;
+        }
+
+        final int[] scores = new int[uniquePositions.size()];
+        final int[][] lines = new int[uniquePositions.size()][];
+        final AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+
+        for (final GameEngine engine : mEngines) {
+            workers.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int i;
+                    while ((i = next.getAndIncrement()) < uniquePositions.size()) {
+                        engine.setPosition(uniquePositions.get(i));
+                        scores[i] = engine.search(mMaxDepth);
+                        lines[i] = engine.principalVariation(engine.getCellCount());
+                    }
+                    return null;
+                }
+            });
+        }
+
+        for (Future<Void> future : mExecutor.invokeAll(workers)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Analysis failed", e.getCause());
+            }
+        }
+
+        // Map the moves found for each canonical position back onto the original boards
+        AnalysisResult[] results = new AnalysisResult[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int[] canonicalLine = lines[uniqueIndex[i]];
+            int[] line = new int[canonicalLine.length];
+            int inverse = mCanonicalEngine.inverseSymmetry(symmetry[i]);
+
+            for (int move = 0; move < line.length; move++)
+                line[move] = mCanonicalEngine.transformCell(inverse, canonicalLine[move]);
+
+            int bestMove = line.length > 0 ? line[0] : GameEngine.NO_MOVE;
+            results[i] = new AnalysisResult(positions[i], bestMove, scores[uniqueIndex[i]], line);
+        }
+        return results;
+    }
+
+    /** Stops the worker threads, the analyzer can't be used afterwards */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * Turns an encoded position into cell contents
+     *
+     * @throws IllegalArgumentException If the position isn't a valid board of this analyzer's size
+     */
+    private byte[] decode(String position) {
+        if (position.length() != mSize * mSize)
+            throw new IllegalArgumentException("Expected " + mSize * mSize
+                    + " cells: \"" + position + "\"");
+
+        byte[] cells = new byte[position.length()];
+        int xMoves = 0;
+        int oMoves = 0;
+
+        for (int cell = 0; cell < cells.length; cell++) {
+            char c = position.charAt(cell);
+
+            if (c == 'X' || c == 'x') {
+                cells[cell] = GameEngine.PLAYER_X;
+                xMoves++;
+            } else if (c == 'O' || c == 'o') {
+                cells[cell] = GameEngine.PLAYER_O;
+                oMoves++;
+            } else if (c == EMPTY_CHAR || c == '-' || c == ' ') {
+                cells[cell] = GameEngine.EMPTY;
+            } else {
+                throw new IllegalArgumentException("Unknown cell '" + c + "': \"" + position
+                        + "\"");
+            }
+        }
+
+        if (xMoves != oMoves && xMoves != oMoves + 1)
+            throw new IllegalArgumentException("Impossible move counts: \"" + position + "\"");
+
+        return cells;
+    }
+
+    private byte[] transform(byte[] cells, int symmetry) {
+        byte[] transformed = new byte[cells.length];
+
+        for (int cell = 0; cell < cells.length; cell++)
+            transformed[mCanonicalEngine.transformCell(symmetry, cell)] = cells[cell];
+
+        return transformed;
+    }
+}
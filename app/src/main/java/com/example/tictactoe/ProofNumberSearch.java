@@ -0,0 +1,277 @@
+package com.example.tictactoe;
+
+/**
+ * Depth-first proof-number search (df-pn) that proves or disproves a forced win for the player
+ * to move in a GameEngine position. Unlike the Minimax search it doesn't look at every move to a
+ * fixed depth: it keeps following the moves that need the fewest positions to be settled, which
+ * finds long forcing sequences at a fraction of the cost.
+ *
+ * Every position gets a proof number (how many positions still need to be proven to prove the
+ * win) and a disproof number (same, to disprove it). These are kept in a fixed size table keyed by
+ * the position hash, so memory stays bounded no matter how long the search runs. The search gives
+ * up once it has visited its node budget or its SearchControl stops it.
+ *
+ * The table is kept between calls, so a search that ran out of budget isn't wasted: the next call,
+ * usually on the position a move or two later, starts from the numbers it left behind. The
+ * numbers only hold for one attacking player, the table is cleared when the attacker changes.
+ */
+public class ProofNumberSearch {
+    // Search results
+    public static final int UNKNOWN = 0;
+    public static final int PROVEN = 1;
+    public static final int DISPROVEN = 2;
+
+    // Stands in for infinity, sums of proof numbers are capped here
+    private static final int INFINITY = 1 << 28;
+
+    // The search control is polled whenever the node count is a multiple of this plus one
+    private static final int CONTROL_CHECK_MASK = 0xFF;
+
+    private final GameEngine mEngine;
+    private final int[][] mMoves;
+
+    // Proof and disproof numbers of visited positions
+    private final long[] mKeys;
+    private final int[] mProof;
+    private final int[] mDisproof;
+    private final int mMask;
+
+    private byte mAttacker = GameEngine.EMPTY;
+    private long mNodes;
+    private long mNodeBudget;
+    private SearchControl mControl;
+    private boolean mAborted;
+    private int mWinningMove = GameEngine.NO_MOVE;
+
+    /**
+     * @param engine    Engine whose current position gets solved
+     * @param tableBits The proof table holds 2^tableBits positions
+     */
+    public ProofNumberSearch(GameEngine engine, int tableBits) {
+        mEngine = engine;
+        mMoves = new int[engine.getCellCount() + 1][engine.getCellCount()];
+        mKeys = new long[1 << tableBits];
+        mProof = new int[1 << tableBits];
+        mDisproof = new int[1 << tableBits];
+        mMask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * Tries to prove that the player to move can force a win from the engine's current position.
+     * The engine is back in the same position when this returns.
+     *
+     * @param nodeBudget Most positions to visit before giving up
+     * @return PROVEN, DISPROVEN (a draw or a loss at best), or UNKNOWN if out of budget
+     */
+    public int prove(long nodeBudget) {
+        return prove(nodeBudget, null);
+    }
+
+    /**
+     * Same as prove(long), but also gives up when the control says so
+     *
+     * @param control Polled every few hundred positions, null to only stop at the node budget
+     * @return PROVEN, DISPROVEN, or UNKNOWN if out of budget or stopped, see isAborted()
+     */
+    public int prove(long nodeBudget, SearchControl control) {
+        if (mEngine.sideToMove() != mAttacker) {
+            mAttacker = mEngine.sideToMove();
+            clear();
+        }
+        mNodes = 0;
+        mNodeBudget = nodeBudget;
+        mControl = control;
+        mAborted = false;
+        mWinningMove = GameEngine.NO_MOVE;
+
+        search(0, INFINITY, INFINITY);
+        mControl = null;
+
+        int slot = slot(mEngine.getHash());
+        if (!contains(mEngine.getHash(), slot))
+            return UNKNOWN;
+
+        if (mProof[slot] == 0) {
+            findWinningMove();
+            return PROVEN;
+        } else if (mDisproof[slot] == 0) {
+            return DISPROVEN;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Multiple iterative deepening of the current position: keeps expanding the most proving
+     * child until the position's proof or disproof number reaches its threshold
+     */
+    private void search(int ply, int proofThreshold, int disproofThreshold) {
+        long hash = mEngine.getHash();
+        int slot = slot(hash);
+        mNodes++;
+
+        if (terminal(hash, slot) || outOfBudget())
+            return;
+
+        boolean orNode = mEngine.sideToMove() == mAttacker;
+        int[] moves = mMoves[ply];
+        int moveCount = generateMoves(moves);
+
+        while (true) {
+            // Collect the children's numbers, the best child and the runner up
+            int minimum = INFINITY;
+            int secondMinimum = INFINITY;
+            int sum = 0;
+            int bestMove = GameEngine.NO_MOVE;
+            int bestOther = 0;
+
+            for (int i = 0; i < moveCount; i++) {
+                mEngine.play(moves[i]);
+                int childSlot = slot(mEngine.getHash());
+                boolean known = terminal(mEngine.getHash(), childSlot)
+                        || contains(mEngine.getHash(), childSlot);
+                int childProof = known ? mProof[childSlot] : 1;
+                int childDisproof = known ? mDisproof[childSlot] : 1;
+                mEngine.undo(moves[i]);
+
+                // OR nodes minimize the proof number, AND nodes the disproof number
+                int selected = orNode ? childProof : childDisproof;
+                int other = orNode ? childDisproof : childProof;
+
+                if (selected < minimum) {
+                    secondMinimum = minimum;
+                    minimum = selected;
+                    bestMove = moves[i];
+                    bestOther = other;
+                } else if (selected < secondMinimum) {
+                    secondMinimum = selected;
+                }
+                sum = Math.min(INFINITY, sum + other);
+            }
+
+            int proof = orNode ? minimum : sum;
+            int disproof = orNode ? sum : minimum;
+            store(hash, slot, proof, disproof);
+
+            if (proof >= proofThreshold || disproof >= disproofThreshold || outOfBudget())
+                return;
+
+            int childProofThreshold;
+            int childDisproofThreshold;
+            if (orNode) {
+                childProofThreshold = Math.min(proofThreshold, secondMinimum + 1);
+                childDisproofThreshold =
+                        Math.min(INFINITY, disproofThreshold - disproof + bestOther);
+            } else {
+                childProofThreshold = Math.min(INFINITY, proofThreshold - proof + bestOther);
+                childDisproofThreshold = Math.min(disproofThreshold, secondMinimum + 1);
+            }
+
+            mEngine.play(bestMove);
+            search(ply + 1, childProofThreshold, childDisproofThreshold);
+            mEngine.undo(bestMove);
+        }
+    }
+
+    private boolean outOfBudget() {
+        if (mControl != null && (mNodes & CONTROL_CHECK_MASK) == 1 && mControl.shouldStop())
+            mAborted = true;
+
+        return mAborted || mNodes > mNodeBudget;
+    }
+
+    /**
+     * Stores the numbers of a finished game in the table
+     *
+     * @return True if the game is over in the engine's current position
+     */
+    private boolean terminal(long hash, int slot) {
+        int winner = mEngine.getWinner();
+
+        if (winner == mAttacker) {
+            store(hash, slot, 0, INFINITY);
+            return true;
+        } else if (winner != GameEngine.EMPTY || mEngine.isGameOver()) {
+            store(hash, slot, INFINITY, 0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Only one move is worth trying when the player to move can win at once or has to block the
+     * other player's win. Otherwise the attacker tries the engine's moves near the stones, while
+     * the defender tries every empty cell, so a proof covers every defence.
+     */
+    private int generateMoves(int[] moves) {
+        byte player = mEngine.sideToMove();
+        byte opponent = player == GameEngine.PLAYER_X ? GameEngine.PLAYER_O : GameEngine.PLAYER_X;
+        int forced = mEngine.findWinningCell(player);
+
+        if (forced == GameEngine.NO_MOVE)
+            forced = mEngine.findWinningCell(opponent);
+
+        if (forced != GameEngine.NO_MOVE) {
+            moves[0] = forced;
+            return 1;
+        }
+        return mEngine.generateMoves(moves, player == mAttacker);
+    }
+
+    private void findWinningMove() {
+        int[] moves = mMoves[0];
+        int moveCount = generateMoves(moves);
+
+        for (int i = 0; i < moveCount && mWinningMove == GameEngine.NO_MOVE; i++) {
+            mEngine.play(moves[i]);
+            int slot = slot(mEngine.getHash());
+            if (mEngine.getWinner() == mAttacker
+                    || (contains(mEngine.getHash(), slot) && mProof[slot] == 0))
+                mWinningMove = moves[i];
+            mEngine.undo(moves[i]);
+        }
+    }
+
+    /**
+     * Empty slots hold a zero proof and disproof number, which no stored position ever has
+     */
+    private boolean contains(long hash, int slot) {
+        return mKeys[slot] == hash && (mProof[slot] != 0 || mDisproof[slot] != 0);
+    }
+
+    private void store(long hash, int slot, int proof, int disproof) {
+        mKeys[slot] = hash;
+        mProof[slot] = proof;
+        mDisproof[slot] = disproof;
+    }
+
+    /** Forgets every position, the next call starts from scratch */
+    public void clear() {
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = 0;
+            mProof[i] = 0;
+            mDisproof[i] = 0;
+        }
+    }
+
+    private int slot(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+
+    /**
+     * @return The first move of the win found by the last prove() call, NO_MOVE if none
+     */
+    public int getWinningMove() {
+        return mWinningMove;
+    }
+
+    public long getNodeCount() {
+        return mNodes;
+    }
+
+    /**
+     * @return True if the last prove() call was stopped by its SearchControl
+     */
+    public boolean isAborted() {
+        return mAborted;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.tictactoe;
+
+/**
+ * Scratch space for a GameEngine search, allocated once and reused by every search so that
+ * searching never allocates on the heap. Moves are row-major cell indices (row * size + col).
+ */
+class SearchContext {
+    // One move list per ply, the deepest possible search fills the whole board
+    private final int[][] mMoves;
+    private final int[][] mScores;      // Ordering scores of the moves, per ply
+    private int mBestMove = GameEngine.NO_MOVE;
+    private long mNodes;
+
+    /**
+     * @param cellCount Number of cells on the board the context is used for
+     */
+    SearchContext(int cellCount) {
+        mMoves = new int[cellCount + 1][cellCount];
+        mScores = new int[cellCount + 1][cellCount];
+    }
+
+    /** Clears the results of the previous search */
+    void start() {
+        mBestMove = GameEngine.NO_MOVE;
+        mNodes = 0;
+    }
+
+    /**
+     * @param ply Number of moves played since the root of the search
+     * @return The move list reserved for that ply
+     */
+    int[] moves(int ply) {
+        return mMoves[ply];
+    }
+
+    /**
+     * @return Scratch space for the ordering scores of the moves at that ply
+     */
+    int[] scores(int ply) {
+        return mScores[ply];
+    }
+
+    void countNode() {
+        mNodes++;
+    }
+
+    int getBestMove() {
+        return mBestMove;
+    }
+
+    void setBestMove(int bestMove) {
+        mBestMove = bestMove;
+    }
+
+    long getNodes() {
+        return mNodes;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tictactoe;
+
+/**
+ * Lets whoever started a search stop it early. Engines poll shouldStop() every few thousand
+ * positions, abandon the iteration they are in and report the result of the last finished one.
+ */
+public interface SearchControl {
+    /**
+     * @return True if the search should stop as soon as possible
+     */
+    boolean shouldStop();
+}
@@ -0,0 +1,155 @@
+package com.example.tictactoe;
+
+/**
+ * A search for one move that AiScheduler can run in slices. The job searches one depth at a time
+ * (iterative deepening), so it can be stopped between or in the middle of iterations and resumed
+ * later, keeping the best move of the deepest iteration it has finished. Resuming repeats the
+ * interrupted iteration, which is cheap because the engine's transposition table remembers it.
+ *
+ * The job owns its engine while it is queued or running, nothing else may touch the engine until
+ * the scheduler reports the move.
+ */
+public abstract class SearchJob {
+    // Returned by searchDepth() when the control stopped the search
+    static final int ABORTED = -2;
+
+    private int mDepth = 0;
+    private int mBestMove = GameEngine.NO_MOVE;
+
+    /**
+     * Creates a job that finds the best move for a player on a GameEngine board. Where the search
+     * can't reach the end of the game, the job first tries to prove a forced win, once, before the
+     * first iteration. A proven win is played without searching any further.
+     *
+     * @param maxDepth Deepest iteration, GameEngine.UNLIMITED_DEPTH to search to the game end
+     */
+    public static SearchJob forGame(final GameEngine engine, final byte player, int maxDepth) {
+        final int emptyCells = engine.getCellCount() - engine.getMoveCount();
+        final int depthLimit = Math.min(maxDepth, emptyCells);
+
+        return new SearchJob() {
+            // Nothing to prove when the search reaches the end of the game
+            private boolean mProofDone = depthLimit >= emptyCells;
+            private int mMaxDepth = depthLimit;
+
+            @Override
+            int searchDepth(int depth, SearchControl control) {
+                engine.setSearchControl(control);
+                try {
+                    if (!mProofDone) {
+                        // A stopped proof is resumed from the proof table by the next slice
+                        int win = engine.findProvenWin(player);
+                        if (engine.isAborted())
+                            return ABORTED;
+
+                        mProofDone = true;
+                        if (win != GameEngine.NO_MOVE) {
+                            mMaxDepth = depth;
+                            return win;
+                        }
+                    }
+
+                    int move = engine.searchBestMove(player, depth);
+                    return engine.isAborted() ? ABORTED : move;
+                } finally {
+                    engine.setSearchControl(null);
+                }
+            }
+
+            @Override
+            int getMaxDepth() {
+                return mMaxDepth;
+            }
+
+            @Override
+            int getFallbackMove() {
+                // A one move search is quick even on big boards
+                return engine.searchBestMove(player, 1);
+            }
+        };
+    }
+
+    /**
+     * Creates a job that finds the best move for the player to move in Ultimate Tic Tac Toe
+     *
+     * @param maxDepth Deepest iteration
+     */
+    public static SearchJob forUltimate(final UltimateEngine engine, final int maxDepth) {
+        return new SearchJob() {
+            private int mMaxDepth = maxDepth;
+
+            @Override
+            int searchDepth(int depth, SearchControl control) {
+                engine.setSearchControl(control);
+                try {
+                    int score = engine.search(depth);
+                    if (engine.isAborted())
+                        return ABORTED;
+
+                    // Nothing left to learn once the game is decided
+                    if (Math.abs(score) > PatternEvaluator.MAX_EVALUATION)
+                        mMaxDepth = depth;
+                    return engine.getBestMove();
+                } finally {
+                    engine.setSearchControl(null);
+                }
+            }
+
+            @Override
+            int getMaxDepth() {
+                return mMaxDepth;
+            }
+
+            @Override
+            int getFallbackMove() {
+                return engine.findBestMove(1, Long.MAX_VALUE);
+            }
+        };
+    }
+
+    /**
+     * Searches the position to the given depth
+     *
+     * @return The best move at that depth, ABORTED if the control stopped the search
+     */
+    abstract int searchDepth(int depth, SearchControl control);
+
+    abstract int getMaxDepth();
+
+    /**
+     * @return Some legal move, for when not even the first iteration could finish in time
+     */
+    abstract int getFallbackMove();
+
+    /**
+     * Runs iterations until the deepest one is done or the control stops the search
+     *
+     * @return True if the job is finished, false if it was stopped and has more to do
+     */
+    boolean run(SearchControl control) {
+        while (mDepth < getMaxDepth()) {
+            int move = searchDepth(mDepth + 1, control);
+
+            if (move == ABORTED)
+                return false;
+
+            mDepth++;
+            mBestMove = move;
+        }
+        return true;
+    }
+
+    /**
+     * @return The best move of the deepest finished iteration, or a fallback move if none finished
+     */
+    int getBestMove() {
+        return mBestMove != GameEngine.NO_MOVE ? mBestMove : getFallbackMove();
+    }
+
+    /**
+     * @return Depth of the deepest finished iteration
+     */
+    int getCompletedDepth() {
+        return mDepth;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.tictactoe;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records when each phase of the app's cold start is reached, in milliseconds since the timer
+ * was created. The shared timer is created when the app's first class touches it, which is the
+ * start of MainActivity.onCreate(), so its times leave out process creation.
+ *
+ * Only the first mark of a phase counts, so phases that repeat, like AI moves, can be marked
+ * every time and still report when they first happened.
+ */
+public class StartupTimer {
+    // Phases of a cold start, in the order they usually happen
+    public static final String MAIN_CREATED = "main_created";
+    public static final String FIRST_FRAME = "first_frame";
+    public static final String WARM_UP_CLASSES = "warm_up_classes";
+    public static final String WARM_UP_CLASSIC = "warm_up_classic";
+    public static final String WARM_UP_ULTIMATE = "warm_up_ultimate";
+    public static final String FIRST_AI_MOVE = "first_ai_move";
+
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    private static final StartupTimer sShared = new StartupTimer();
+
+    private final long mStart = System.nanoTime();
+    private final Map<String, Long> mMarks = new LinkedHashMap<>();
+
+    /**
+     * @return The timer of this process's cold start
+     */
+    public static StartupTimer getShared() {
+        return sShared;
+    }
+
+    /**
+     * Records that a phase has been reached, unless it was already
+     *
+     * @return True if this was the first mark of the phase
+     */
+    public synchronized boolean mark(String phase) {
+        if (mMarks.containsKey(phase))
+            return false;
+
+        mMarks.put(phase, System.nanoTime() - mStart);
+        return true;
+    }
+
+    /**
+     * @return Milliseconds from the start until the phase was first marked, -1 if it wasn't
+     */
+    public synchronized long getMillis(String phase) {
+        Long nanos = mMarks.get(phase);
+        return nanos == null ? -1 : nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return Every marked phase with its time, in the order they were marked
+     */
+    public synchronized String summary() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<String, Long> mark : mMarks.entrySet()) {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(mark.getKey()).append('=')
+                    .append(mark.getValue() / NANOS_PER_MILLI).append("ms");
+        }
+        return builder.toString();
+    }
+}
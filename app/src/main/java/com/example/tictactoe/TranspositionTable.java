@@ -0,0 +1,92 @@
+package com.example.tictactoe;
+
+/**
+ * Fixed size hash table of search results, keyed by the Zobrist hash of a position. Memory use is
+ * decided once when the table is created, newer results simply overwrite older ones that land in
+ * the same slot.
+ *
+ * Each result is packed into a single long so probing and storing never allocate:
+ *
+ *  bits  0-31  score
+ *  bits 32-39  depth the score was searched to
+ *  bits 40-41  bound type (EXACT, LOWER, UPPER)
+ *  bits 42-53  best move + 1 (0 means no move)
+ *  bit  63     set for every stored entry
+ */
+class TranspositionTable {
+    static final long MISS = 0L;
+
+    // Bound types
+    static final int EXACT = 0;
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+
+    private static final int MAX_DEPTH = 0xFF;
+    private static final long VALID = 1L << 63;
+
+    private final long[] mKeys;
+    private final long[] mData;
+    private final int mMask;
+
+    /**
+     * @param bits The table holds 2^bits entries
+     */
+    TranspositionTable(int bits) {
+        if (bits < 1 || bits > 26)
+            throw new IllegalArgumentException("Table size out of range: " + bits);
+
+        mKeys = new long[1 << bits];
+        mData = new long[1 << bits];
+        mMask = (1 << bits) - 1;
+    }
+
+    /**
+     * @param hash Zobrist hash of the position
+     * @return The packed entry for the position, MISS if it isn't in the table
+     */
+    long probe(long hash) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mMask;
+
+        if (mData[slot] != MISS && mKeys[slot] == hash)
+            return mData[slot];
+
+        return MISS;
+    }
+
+    void store(long hash, int score, int depth, int bound, int move) {
+        int slot = (int) (hash ^ (hash >>> 32)) & mMask;
+
+        mKeys[slot] = hash;
+        mData[slot] = (score & 0xFFFFFFFFL)
+                | ((long) Math.min(depth, MAX_DEPTH) << 32)
+                | ((long) bound << 40)
+                | ((long) (move + 1) << 42)
+                | VALID;
+    }
+
+    void clear() {
+        for (int i = 0; i < mData.length; i++) {
+            mKeys[i] = 0;
+            mData[i] = MISS;
+        }
+    }
+
+    /**
+     * Unpack the fields of an entry returned by probe()
+     */
+    static int score(long entry) {
+        return (int) entry;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 32) & MAX_DEPTH;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    static int move(long entry) {
+        return ((int) (entry >>> 42) & 0xFFF) - 1;
+    }
+}
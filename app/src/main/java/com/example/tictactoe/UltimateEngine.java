@@ -0,0 +1,499 @@
+package com.example.tictactoe;
+
+import java.util.Random;
+
+/**
+ * Android-free engine for Ultimate Tic Tac Toe: nine 3 by 3 sub-boards laid out as a 3 by 3 big
+ * board. The cell a player moves in decides which sub-board the other player has to move in next,
+ * unless that sub-board is already won or full, in which case any open sub-board may be used.
+ * Winning a sub-board claims its spot on the big board, and three claimed spots in a row win.
+ *
+ * Each sub-board is a 9-bit mask per player (bit = row * 3 + col), so whether a sub-board is won
+ * is a single lookup in a 512-entry table and legal moves come straight out of the empty bits.
+ * The big board uses the same masks and table.
+ *
+ * Moves are packed ints, board * 9 + cell, with sub-boards and cells both numbered row by row.
+ * Scores are from PLAYER_X's point of view, as in GameEngine.
+ */
+public class UltimateEngine {
+    public static final int BOARD_COUNT = 9;
+    public static final int CELL_COUNT = BOARD_COUNT * 9;
+    public static final int ANY_BOARD = -1;
+
+    private static final int FULL = 0x1FF;
+
+    // The 8 lines of a 3 by 3 board: rows, columns, then both diagonals
+    private static final int[] LINES = {0x007, 0x038, 0x1C0, 0x049, 0x092, 0x124, 0x111, 0x054};
+
+    // WINS[mask] is true if the moves in mask complete a line
+    private static final boolean[] WINS = new boolean[1 << 9];
+
+    static {
+        for (int mask = 0; mask < WINS.length; mask++) {
+            for (int line : LINES) {
+                if ((mask & line) == line)
+                    WINS[mask] = true;
+            }
+        }
+    }
+
+    // Evaluation weights
+    private static final int BOARD_WIN = 100;
+    private static final int CENTER_BOARD_WIN = 30;
+    private static final int BIG_BOARD_TWO = 60;
+    private static final int SUB_BOARD_TWO = 8;
+    private static final int CENTER_CELL = 2;
+
+    private static final int TABLE_BITS = 18;
+
+    // The search control is polled whenever the node count is a multiple of this plus one
+    private static final int CONTROL_CHECK_MASK = 0xFFF;
+
+    // Board state
+    private final int[] mX = new int[BOARD_COUNT];
+    private final int[] mO = new int[BOARD_COUNT];
+    private int mXWon;      // Sub-boards won by X, as a big board mask
+    private int mOWon;
+    private int mClosed;    // Sub-boards that are won or full
+    private int mActive = ANY_BOARD;
+    private byte mSideToMove = GameEngine.PLAYER_X;
+    private int mMoves;
+    private final int[] mActiveHistory = new int[CELL_COUNT];
+
+    // Hashing
+    private final long[][] mZobrist = new long[3][CELL_COUNT];
+    private final long[] mActiveKeys = new long[BOARD_COUNT + 1];
+    private final long mSideKey;
+    private long mHash;
+
+    // Search state
+    private final TranspositionTable mTable = new TranspositionTable(TABLE_BITS);
+    private final int[][] mMoveLists = new int[CELL_COUNT + 1][CELL_COUNT];
+    private long mNodes;
+    private long mNodeBudget;
+    private boolean mAborted;
+    private SearchControl mControl;
+    private int mRootBestMove = GameEngine.NO_MOVE;
+
+    /** Default constructor */
+    public UltimateEngine() {
+        Random random = new Random(0x5DEECE66DL);
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            mZobrist[GameEngine.PLAYER_X][cell] = random.nextLong();
+            mZobrist[GameEngine.PLAYER_O][cell] = random.nextLong();
+        }
+        for (int i = 0; i < mActiveKeys.length; i++)
+            mActiveKeys[i] = random.nextLong();
+        mSideKey = random.nextLong();
+
+        reset();
+    }
+
+    /** Empties every sub-board */
+    public void reset() {
+        for (int board = 0; board < BOARD_COUNT; board++) {
+            mX[board] = 0;
+            mO[board] = 0;
+        }
+        mXWon = 0;
+        mOWon = 0;
+        mClosed = 0;
+        mActive = ANY_BOARD;
+        mSideToMove = GameEngine.PLAYER_X;
+        mMoves = 0;
+        mHash = mActiveKeys[mActive + 1];
+    }
+
+    /**
+     * @param move Packed move, board * 9 + cell
+     * @return True if the player to move may play there
+     */
+    public boolean isLegal(int move) {
+        if (move < 0 || move >= CELL_COUNT || isGameOver())
+            return false;
+
+        int board = move / 9;
+        int bit = 1 << (move % 9);
+
+        return (mActive == ANY_BOARD || mActive == board)
+                && (mClosed & (1 << board)) == 0
+                && ((mX[board] | mO[board]) & bit) == 0;
+    }
+
+    /**
+     * Plays a legal move for the player whose turn it is
+     *
+     * @param move Packed move, board * 9 + cell
+     */
+    public void play(int move) {
+        int board = move / 9;
+        int cell = move % 9;
+        int boardBit = 1 << board;
+
+        if (mSideToMove == GameEngine.PLAYER_X) {
+            mX[board] |= 1 << cell;
+            if (WINS[mX[board]])
+                mXWon |= boardBit;
+        } else {
+            mO[board] |= 1 << cell;
+            if (WINS[mO[board]])
+                mOWon |= boardBit;
+        }
+
+        if (((mXWon | mOWon) & boardBit) != 0 || (mX[board] | mO[board]) == FULL)
+            mClosed |= boardBit;
+
+        mActiveHistory[mMoves++] = mActive;
+        mHash ^= mZobrist[mSideToMove][move] ^ mActiveKeys[mActive + 1];
+        mActive = (mClosed & (1 << cell)) == 0 ? cell : ANY_BOARD;
+        mHash ^= mActiveKeys[mActive + 1] ^ mSideKey;
+        mSideToMove = opponent(mSideToMove);
+    }
+
+    /**
+     * Takes back the last move played
+     *
+     * @param move The move that was played last
+     */
+    public void undo(int move) {
+        int board = move / 9;
+        int cell = move % 9;
+        int boardBit = 1 << board;
+
+        mSideToMove = opponent(mSideToMove);
+        mHash ^= mActiveKeys[mActive + 1] ^ mSideKey;
+        mActive = mActiveHistory[--mMoves];
+        mHash ^= mZobrist[mSideToMove][move] ^ mActiveKeys[mActive + 1];
+
+        if (mSideToMove == GameEngine.PLAYER_X)
+            mX[board] &= ~(1 << cell);
+        else
+            mO[board] &= ~(1 << cell);
+
+        // Moves are only played on open sub-boards, so it was open before this move
+        mXWon &= ~boardBit;
+        mOWon &= ~boardBit;
+        mClosed &= ~boardBit;
+    }
+
+    /**
+     * Fills the list with every legal move
+     *
+     * @return The number of moves in the list
+     */
+    public int generateMoves(int[] moves) {
+        if (isGameOver())
+            return 0;
+
+        if (mActive != ANY_BOARD)
+            return addBoardMoves(moves, 0, mActive);
+
+        int count = 0;
+        int open = ~mClosed & FULL;
+        while (open != 0) {
+            int board = Integer.numberOfTrailingZeros(open);
+            open &= open - 1;
+            count = addBoardMoves(moves, count, board);
+        }
+        return count;
+    }
+
+    private int addBoardMoves(int[] moves, int count, int board) {
+        int empty = ~(mX[board] | mO[board]) & FULL;
+
+        while (empty != 0) {
+            moves[count++] = board * 9 + Integer.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Iterative deepening alpha-beta search for the player to move. Each iteration goes one move
+     * deeper until maxDepth is reached or the node budget runs out, in which case the best move of
+     * the last finished iteration is returned. The same goes when the search control stops the
+     * search.
+     *
+     * @param maxDepth   Deepest iteration to search
+     * @param nodeBudget Most positions to visit
+     * @return The best move found, NO_MOVE if the game is over
+     */
+    public int findBestMove(int maxDepth, long nodeBudget) {
+        int bestMove = GameEngine.NO_MOVE;
+        mNodes = 0;
+        mNodeBudget = nodeBudget;
+        mAborted = false;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = searchRoot(depth);
+
+            if (mAborted)
+                break;
+
+            bestMove = mRootBestMove;
+
+            // Nothing left to learn once the game is decided
+            if (Math.abs(score) > PatternEvaluator.MAX_EVALUATION)
+                break;
+        }
+
+        // Out of budget before the first iteration finished, take any legal move
+        if (bestMove == GameEngine.NO_MOVE && generateMoves(mMoveLists[0]) > 0)
+            bestMove = mMoveLists[0][0];
+
+        return bestMove;
+    }
+
+    /**
+     * A single alpha-beta search to a fixed depth, without a node budget, for callers that run
+     * their own iterative deepening. The best move is available from getBestMove() afterwards.
+     *
+     * @return The score of the current position for PLAYER_X, 0 if the search control stopped
+     *         the search, see isAborted()
+     */
+    public int search(int depth) {
+        mNodes = 0;
+        mNodeBudget = Long.MAX_VALUE;
+        mAborted = false;
+        return searchRoot(depth);
+    }
+
+    private int searchRoot(int depth) {
+        mRootBestMove = GameEngine.NO_MOVE;
+        return alphaBeta(0, depth, -GameEngine.WIN_SCORE - 1, GameEngine.WIN_SCORE + 1);
+    }
+
+    private int alphaBeta(int ply, int depth, int alpha, int beta) {
+        if (++mNodes > mNodeBudget || (mControl != null
+                && (mNodes & CONTROL_CHECK_MASK) == 1 && mControl.shouldStop())) {
+            mAborted = true;
+            return 0;
+        }
+
+        // Check for terminal cases (recursive call exit conditions)
+        if (WINS[mXWon])
+            return GameEngine.WIN_SCORE - mMoves;
+        else if (WINS[mOWon])
+            return -(GameEngine.WIN_SCORE - mMoves);
+        else if (mClosed == FULL)
+            return 0;
+        else if (depth == 0)
+            return evaluate();
+
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        int ttMove = GameEngine.NO_MOVE;
+        long entry = mTable.probe(mHash);
+
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.move(entry);
+
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+
+                if (bound == TranspositionTable.EXACT)
+                    return score;
+                else if (bound == TranspositionTable.LOWER && score > alpha)
+                    alpha = score;
+                else if (bound == TranspositionTable.UPPER && score < beta)
+                    beta = score;
+
+                if (alpha >= beta)
+                    return score;
+            }
+        }
+
+        int[] moves = mMoveLists[ply];
+        int moveCount = generateMoves(moves);
+
+        // Try the move that was best last time first
+        for (int i = 1; i < moveCount; i++) {
+            if (moves[i] == ttMove) {
+                moves[i] = moves[0];
+                moves[0] = ttMove;
+                break;
+            }
+        }
+
+        boolean maximizing = mSideToMove == GameEngine.PLAYER_X;
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int bestMove = GameEngine.NO_MOVE;
+
+        for (int i = 0; i < moveCount && alpha < beta; i++) {
+            int move = moves[i];
+
+            play(move);
+            int score = alphaBeta(ply + 1, depth - 1, alpha, beta);
+            undo(move);
+
+            if (mAborted)
+                return 0;
+
+            if (maximizing ? score > bestValue : score < bestValue) {
+                bestValue = score;
+                bestMove = move;
+            }
+
+            if (maximizing && bestValue > alpha)
+                alpha = bestValue;
+            else if (!maximizing && bestValue < beta)
+                beta = bestValue;
+        }
+
+        int bound;
+        if (bestValue <= originalAlpha)
+            bound = TranspositionTable.UPPER;
+        else if (bestValue >= originalBeta)
+            bound = TranspositionTable.LOWER;
+        else
+            bound = TranspositionTable.EXACT;
+
+        mTable.store(mHash, bestValue, depth, bound, bestMove);
+
+        if (ply == 0)
+            mRootBestMove = bestMove;
+
+        return bestValue;
+    }
+
+    /**
+     * Static evaluation for PLAYER_X: sub-boards won, the center one counting extra, two in a rows
+     * that can still be completed on the big board and on each open sub-board, and center cells
+     */
+    public int evaluate() {
+        int score = 0;
+        int drawn = mClosed & ~(mXWon | mOWon);
+
+        for (int board = 0; board < BOARD_COUNT; board++) {
+            int boardBit = 1 << board;
+
+            if ((mXWon & boardBit) != 0) {
+                score += board == 4 ? BOARD_WIN + CENTER_BOARD_WIN : BOARD_WIN;
+            } else if ((mOWon & boardBit) != 0) {
+                score -= board == 4 ? BOARD_WIN + CENTER_BOARD_WIN : BOARD_WIN;
+            } else if ((mClosed & boardBit) == 0) {
+                score += SUB_BOARD_TWO * (openTwos(mX[board], mO[board])
+                        - openTwos(mO[board], mX[board]));
+
+                if ((mX[board] & 0x10) != 0)
+                    score += CENTER_CELL;
+                else if ((mO[board] & 0x10) != 0)
+                    score -= CENTER_CELL;
+            }
+        }
+
+        score += BIG_BOARD_TWO * (openTwos(mXWon, mOWon | drawn)
+                - openTwos(mOWon, mXWon | drawn));
+        return score;
+    }
+
+    /**
+     * @return Number of lines holding two of the player's moves and none of the blockers
+     */
+    private static int openTwos(int player, int blockers) {
+        int count = 0;
+
+        for (int line : LINES) {
+            if ((blockers & line) == 0 && Integer.bitCount(player & line) == 2)
+                count++;
+        }
+        return count;
+    }
+
+    private static byte opponent(byte player) {
+        return player == GameEngine.PLAYER_X ? GameEngine.PLAYER_O : GameEngine.PLAYER_X;
+    }
+
+    /**
+     * @return True if the moves in the 9-bit mask complete a row, column, or diagonal
+     */
+    public static boolean isWin(int mask) {
+        return WINS[mask & FULL];
+    }
+
+    /**
+     * @return PLAYER_X or PLAYER_O if they have won the big board, EMPTY otherwise
+     */
+    public int getWinner() {
+        if (WINS[mXWon])
+            return GameEngine.PLAYER_X;
+        else if (WINS[mOWon])
+            return GameEngine.PLAYER_O;
+        else
+            return GameEngine.EMPTY;
+    }
+
+    public boolean isGameOver() {
+        return getWinner() != GameEngine.EMPTY || mClosed == FULL;
+    }
+
+    /**
+     * @param move Packed move, board * 9 + cell
+     * @return The player in that cell, EMPTY if nobody has moved there
+     */
+    public byte getCell(int move) {
+        int board = move / 9;
+        int bit = 1 << (move % 9);
+
+        if ((mX[board] & bit) != 0)
+            return GameEngine.PLAYER_X;
+        else if ((mO[board] & bit) != 0)
+            return GameEngine.PLAYER_O;
+        else
+            return GameEngine.EMPTY;
+    }
+
+    /**
+     * @return PLAYER_X or PLAYER_O if they won the sub-board, EMPTY otherwise
+     */
+    public byte getBoardWinner(int board) {
+        if ((mXWon & (1 << board)) != 0)
+            return GameEngine.PLAYER_X;
+        else if ((mOWon & (1 << board)) != 0)
+            return GameEngine.PLAYER_O;
+        else
+            return GameEngine.EMPTY;
+    }
+
+    /**
+     * Getters for member variables below
+     */
+    public int getActiveBoard() {
+        return mActive;
+    }
+
+    public byte sideToMove() {
+        return mSideToMove;
+    }
+
+    public int getMoveCount() {
+        return mMoves;
+    }
+
+    /**
+     * @param control Polled during searches to stop them early, null to only stop at the budget
+     */
+    public void setSearchControl(SearchControl control) {
+        mControl = control;
+    }
+
+    /**
+     * @return True if the last search ran out of budget or was stopped before it finished
+     */
+    public boolean isAborted() {
+        return mAborted;
+    }
+
+    public long getNodeCount() {
+        return mNodes;
+    }
+
+    /**
+     * @return The best move found by the last search(), NO_MOVE if it was stopped or the game
+     *         is over
+     */
+    public int getBestMove() {
+        return mAborted ? GameEngine.NO_MOVE : mRootBestMove;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.tictactoe;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProviders;
+
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.provider.MediaStore;
+import android.util.Log;
+import android.view.View;
+import android.widget.GridLayout;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+/**
+ * Activity page where Ultimate Tic Tac Toe is played against the computer
+ */
+public class UltimateGamePageActivity extends AppCompatActivity
+        implements PlayerNameDialogFragment.Listener {
+    private static final String TAG = UltimateGamePageActivity.class.getName();
+    private UltimateGameViewModel gameViewModel;
+
+    // Views in the current page, one ImageButton per packed move
+    private ImageButton[] imageButtons = new ImageButton[UltimateEngine.CELL_COUNT];
+    private TextView mStatusTextView;
+    private PlayerProfileStore mProfileStore;
+
+    // Constant to identify the picture user takes
+    private static final int REQUEST_PLAYER1_IMAGE_CAPTURE = 1;
+
+    private static final String PLAYER_NAME_DIALOG_TAG = "player name dialog";
+
+    // Extra space between the sub-boards, in cells
+    private static final float SUB_BOARD_GAP = 0.25f;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.ultimate_game_page);
+
+        mStatusTextView = findViewById(R.id.ultimate_status_text);
+
+        // Attach UltimateGameViewModel to this activity
+        gameViewModel = ViewModelProviders.of(this).get(UltimateGameViewModel.class);
+
+        setImageButtons();
+
+        // Ask for the player's name the first time onCreate() is called, unless the dialog is
+        // still showing after a configuration change. Without a picture yet the camera is still
+        // open and onActivityResult() draws the board. The board is also drawn once the
+        // computer's move arrives if its search is still running.
+        mProfileStore = new PlayerProfileStore(this);
+        if (gameViewModel.getPlayer1Name() == null) {
+            if (getSupportFragmentManager().findFragmentByTag(PLAYER_NAME_DIALOG_TAG) == null) {
+                PlayerNameDialogFragment.newInstance(1, null)
+                        .show(getSupportFragmentManager(), PLAYER_NAME_DIALOG_TAG);
+            }
+        } else if (gameViewModel.getPlayer1BitmapImage() != null && !gameViewModel.isAiThinking())
+            updateBoard();
+
+        // Draw the board with the player's picture once their profile is loaded, or take a
+        // picture if they have none yet
+        gameViewModel.getProfileLoaded().observe(this, new Observer<Boolean>() {
+            @Override
+            public void onChanged(Boolean loaded) {
+                if (loaded) {
+                    gameViewModel.getProfileLoaded().setValue(false);
+
+                    if (gameViewModel.getPlayer1BitmapImage() == null)
+                        openCamera(REQUEST_PLAYER1_IMAGE_CAPTURE);
+                    else
+                        updateBoard();
+                }
+            }
+        });
+
+        // Play the computer's move once the shared scheduler has found it
+        gameViewModel.getAiMove().observe(this, new Observer<Integer>() {
+            @Override
+            public void onChanged(Integer move) {
+                if (move != GameEngine.NO_MOVE && gameViewModel.consumeAiMove())
+                    placeAIMove(move);
+            }
+        });
+    }
+
+    /**
+     * Creates the 81 ImageButtons, laid out sub-board by sub-board with a gap between the
+     * sub-boards, and tags each one with its packed move
+     */
+    private void setImageButtons() {
+        GridLayout grid = findViewById(R.id.ultimate_board);
+        int screenSize = Math.min(getResources().getDisplayMetrics().widthPixels,
+                getResources().getDisplayMetrics().heightPixels);
+        int cellSize = (int) (screenSize / (9 + 3 * SUB_BOARD_GAP));
+        int gap = (int) (cellSize * SUB_BOARD_GAP / 2);
+
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int move = ((row / 3) * 3 + col / 3) * 9 + (row % 3) * 3 + col % 3;
+                ImageButton imageButton = new ImageButton(this);
+                GridLayout.LayoutParams params = new GridLayout.LayoutParams(
+                        GridLayout.spec(row), GridLayout.spec(col));
+
+                params.width = cellSize;
+                params.height = cellSize;
+                params.setMargins(col % 3 == 0 ? gap : 0, row % 3 == 0 ? gap : 0,
+                        col % 3 == 2 ? gap : 0, row % 3 == 2 ? gap : 0);
+
+                imageButton.setLayoutParams(params);
+                imageButton.setScaleType(ImageView.ScaleType.FIT_CENTER);
+                imageButton.setContentDescription(getString(R.string.x_and_o));
+                imageButton.setTag(move);
+                imageButton.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View view) {
+                        placeMove(view);
+                    }
+                });
+
+                imageButtons[move] = imageButton;
+                grid.addView(imageButton);
+            }
+        }
+    }
+
+    /**
+     * Loads a returning player's picture and statistics in the background
+     */
+    @Override
+    public void onPlayerNameChosen(int player, String name) {
+        mProfileStore.savePlayerName(name);
+        gameViewModel.setPlayer1Name(name);
+        gameViewModel.loadProfile(mProfileStore);
+    }
+
+    /**
+     * Go back to main page activity if the player does not give their name
+     */
+    @Override
+    public void onPlayerNameCancelled() {
+        finish();
+    }
+
+    /**
+     * Opens the phone camera to take picture(s)
+     *
+     * @param requestCode The player the picture is going to be taken for
+     */
+    private void openCamera(int requestCode) {
+        Intent pictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
+        if (pictureIntent.resolveActivity(getPackageManager()) != null) {
+            startActivityForResult(pictureIntent, requestCode);
+        }
+    }
+
+    /**
+     * Called after openCamera() successfully executes. Sets the value for the BitmapImage
+     *
+     * @param requestCode The player the picture is going to be taken for
+     * @param resultCode  If camera was successful in opening up or not
+     * @param data        The camera intent which was passed in from openCamera()
+     */
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode == RESULT_OK && data.getExtras().get("data") != null) {
+            if (requestCode == REQUEST_PLAYER1_IMAGE_CAPTURE) {
+                gameViewModel.setPlayer1BitmapImage((Bitmap) data.getExtras().get("data"));
+                mProfileStore.saveThumbnail(gameViewModel.getPlayer1Name(),
+                        gameViewModel.getPlayer1BitmapImage());
+                updateBoard();
+            }
+        } else
+            // Go back to main page activity if user does not take picture
+            finish();
+    }
+
+    /**
+     * The onClick function for when an ImageButton is clicked. Plays the user's move if it is
+     * allowed, then asks for the computer's answer.
+     *
+     * @param view The ImageButton that is being clicked on
+     */
+    public void placeMove(View view) {
+        int move = (Integer) view.getTag();
+
+        // Wait for the computer to finish its move, the engine is busy searching
+        if (gameViewModel.isAiThinking())
+            return;
+
+        // Don't place move if it isn't allowed by the active sub-board or the cell is taken
+        if (!gameViewModel.placeMove(move))
+            return;
+
+        boolean gameOver = checkGameState();
+        updateBoard();
+
+        if (!gameOver)
+            gameViewModel.requestBestMove();
+    }
+
+    /**
+     * Plays the computer's move and shows it
+     *
+     * @param move The packed move the search chose
+     */
+    private void placeAIMove(int move) {
+        gameViewModel.placeMove(move);
+
+        // Log the ImageButton for the AI move
+        Log.v(TAG, "AI move: " + move + ", nodes: " + gameViewModel.getEngine().getNodeCount());
+
+        checkGameState();
+        updateBoard();
+    }
+
+    /**
+     * Shows every move on the board and highlights the cells the user may move in next
+     */
+    private void updateBoard() {
+        UltimateEngine engine = gameViewModel.getEngine();
+        Bitmap player1Img = gameViewModel.getPlayer1BitmapImage();
+
+        for (int move = 0; move < imageButtons.length; move++) {
+            byte cell = engine.getCell(move);
+
+            if (cell == GameEngine.PLAYER_X)
+                imageButtons[move].setImageBitmap(player1Img);
+            else if (cell == GameEngine.PLAYER_O)
+                imageButtons[move].setImageResource(R.drawable.computer);
+            else
+                imageButtons[move].setImageResource(R.color.transparent);
+
+            // Cells of won sub-boards are tinted with the winner's color
+            byte boardWinner = engine.getBoardWinner(move / 9);
+            if (engine.isLegal(move))
+                imageButtons[move].setBackgroundResource(R.color.active_board);
+            else if (boardWinner == GameEngine.PLAYER_X)
+                imageButtons[move].setBackgroundResource(R.color.player1_board);
+            else if (boardWinner == GameEngine.PLAYER_O)
+                imageButtons[move].setBackgroundResource(R.color.player2_board);
+            else
+                imageButtons[move].setBackgroundResource(R.color.inactive_board);
+        }
+
+        int activeBoard = engine.getActiveBoard();
+        if (activeBoard == UltimateEngine.ANY_BOARD)
+            mStatusTextView.setText(R.string.ultimate_any_board);
+        else
+            mStatusTextView.setText(getString(R.string.ultimate_active_board, activeBoard + 1));
+    }
+
+    /**
+     * Checks the big board for a winner or a draw and starts a new game when it is over
+     *
+     * @return True if the game was over
+     */
+    private boolean checkGameState() {
+        UltimateEngine engine = gameViewModel.getEngine();
+
+        if (!engine.isGameOver())
+            return false;
+
+        int winner = engine.getWinner();
+        int result;
+        if (winner == GameEngine.PLAYER_X) {
+            Toast.makeText(this, "Player 1 wins", Toast.LENGTH_LONG).show();
+            result = PlayerStats.WIN;
+        } else if (winner == GameEngine.PLAYER_O) {
+            Toast.makeText(this, "Player 2 wins", Toast.LENGTH_LONG).show();
+            result = PlayerStats.LOSS;
+        } else {
+            Toast.makeText(this, "Draw", Toast.LENGTH_LONG).show();
+            result = PlayerStats.DRAW;
+        }
+
+        // Add the game to the player's lifetime statistics
+        gameViewModel.recordGame(result);
+        mProfileStore.saveStats(gameViewModel.getPlayer1Name(), gameViewModel.getPlayer1Stats());
+
+        gameViewModel.resetGame();
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.tictactoe;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+/**
+ * Class for handling the Ultimate Tic Tac Toe game's data and states. Player 1 is always X and
+ * moves first, the computer plays O.
+ */
+public class UltimateGameViewModel extends ViewModel {
+    private static final String TAG = UltimateGameViewModel.class.getName();
+
+    // How far and how long the computer searches for a move
+    private static final int AI_DEPTH = 10;
+    private static final long AI_TIME_BUDGET_MILLIS = 1000;
+
+    // Game data
+    // Warmed up in the background while the main page was shown, if it had time to finish
+    private final UltimateEngine mEngine = EngineWarmUp.ultimateEngine();
+    private final MutableLiveData<Integer> mAiMove = new MutableLiveData<>(GameEngine.NO_MOVE);
+    private AiScheduler.Ticket mAiTicket;
+    // Only changed on the main thread, from requestBestMove() until the move is consumed
+    private boolean mAiPending;
+    private String mPlayer1Name;
+    private Bitmap mPlayer1BitmapImage;
+    private PlayerStats mPlayer1Stats;
+    // True once the player's profile is loaded, until the page has shown it
+    private final MutableLiveData<Boolean> mProfileLoaded = new MutableLiveData<>(false);
+
+    /**
+     * Plays a move for the player whose turn it is, if it is allowed
+     *
+     * @param move Packed move, board * 9 + cell
+     * @return True if the move was played, false if it isn't legal
+     */
+    public boolean placeMove(int move) {
+        if (!mEngine.isLegal(move))
+            return false;
+
+        mEngine.play(move);
+        return true;
+    }
+
+    /**
+     * Asks the shared AiScheduler for the computer's move. The UltimateEngine's alpha-beta search
+     * deepens until its time budget runs out, and the move is posted to getAiMove(). The engine
+     * belongs to the search until then.
+     */
+    public void requestBestMove() {
+        mAiPending = true;
+        mAiTicket = AiScheduler.getShared().submit(SearchJob.forUltimate(mEngine, AI_DEPTH),
+                AI_TIME_BUDGET_MILLIS, new AiScheduler.Callback() {
+                    @Override
+                    public void onMoveReady(int move) {
+                        mAiMove.postValue(move);
+                    }
+                });
+    }
+
+    /**
+     * @return True while a requested AI move hasn't been placed yet, including after the search
+     *         finished but before its move reached the main thread
+     */
+    public boolean isAiThinking() {
+        return mAiPending;
+    }
+
+    /**
+     * Marks the posted AI move as handled, so it isn't delivered again after a rotation
+     *
+     * @return True if the move should be placed, false if it was posted for a request that was
+     *         cancelled since
+     */
+    public boolean consumeAiMove() {
+        boolean pending = mAiPending;
+        mAiPending = false;
+
+        if (pending && mAiTicket != null && mAiTicket.getError() != null)
+            Log.e(TAG, "AI search failed, playing its fallback move", mAiTicket.getError());
+        mAiTicket = null;
+        mAiMove.setValue(GameEngine.NO_MOVE);
+        return pending;
+    }
+
+    private void cancelAiMove() {
+        if (mAiTicket != null)
+            mAiTicket.cancel();
+        mAiTicket = null;
+        mAiPending = false;
+        mAiMove.setValue(GameEngine.NO_MOVE);
+    }
+
+    @Override
+    protected void onCleared() {
+        cancelAiMove();
+    }
+
+    /**
+     * Adds a finished game to player 1's lifetime statistics
+     *
+     * @param player1Result PlayerStats.WIN, DRAW or LOSS for player 1
+     */
+    public void recordGame(int player1Result) {
+        mPlayer1Stats.recordGame(PlayerStats.MODE_ULTIMATE, player1Result,
+                PlayerStats.computerRating(PlayerStats.MODE_ULTIMATE));
+    }
+
+    /**
+     * Loads the profile of the named player. The statistics are read at once, the thumbnail in the
+     * background, and getProfileLoaded() turns true when both are in.
+     */
+    public void loadProfile(PlayerProfileStore store) {
+        mPlayer1Stats = store.loadStats(mPlayer1Name);
+        store.loadThumbnails(new String[]{mPlayer1Name},
+                new PlayerProfileStore.ThumbnailCallback() {
+                    @Override
+                    public void onThumbnailsLoaded(Bitmap[] thumbnails) {
+                        mPlayer1BitmapImage = thumbnails[0];
+                        mProfileLoaded.setValue(true);
+                    }
+                });
+    }
+
+    /** Resets the board to the initial state */
+    public void resetGame() {
+        cancelAiMove();
+        mEngine.reset();
+    }
+
+    /**
+     * Getters and setters for member variables below
+     */
+    public MutableLiveData<Integer> getAiMove() {
+        return mAiMove;
+    }
+
+    public MutableLiveData<Boolean> getProfileLoaded() {
+        return mProfileLoaded;
+    }
+
+    public UltimateEngine getEngine() {
+        return mEngine;
+    }
+
+    public String getPlayer1Name() {
+        return mPlayer1Name;
+    }
+
+    public void setPlayer1Name(String mPlayer1Name) {
+        this.mPlayer1Name = mPlayer1Name;
+    }
+
+    public Bitmap getPlayer1BitmapImage() {
+        return mPlayer1BitmapImage;
+    }
+
+    public void setPlayer1BitmapImage(Bitmap mPlayer1BitmapImage) {
+        this.mPlayer1BitmapImage = mPlayer1BitmapImage;
+    }
+
+    public PlayerStats getPlayer1Stats() {
+        return mPlayer1Stats;
+    }
+
+    public void setPlayer1Stats(PlayerStats mPlayer1Stats) {
+        this.mPlayer1Stats = mPlayer1Stats;
+    }
+}
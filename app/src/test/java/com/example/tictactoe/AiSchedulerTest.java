@@ -0,0 +1,228 @@
+package com.example.tictactoe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the shared AI worker scheduler
+ */
+public class AiSchedulerTest {
+    private static final int GOMOKU_SIZE = 15;
+    private static final long HEAVY_BUDGET_MILLIS = 1500;
+    private static final long LIGHT_BUDGET_MILLIS = 100;
+    private static final long PROOF_BUDGET_MILLIS = 200;
+    private static final int FALLBACK_MOVE = 7;
+
+    private AiScheduler scheduler;
+    // Counts reported moves, so each Result knows in which order it arrived
+    private final AtomicInteger completions = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        // A single worker, so the searches have to take turns
+        scheduler = new AiScheduler(1, AiScheduler.DEFAULT_SLICE_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void classicGame_getsBestMove() throws InterruptedException {
+        GameEngine engine = new GameEngine(3);
+        // X threatens the top row, O has to block at 2
+        engine.play(0);
+        engine.play(4);
+        engine.play(1);
+
+        Result result = new Result();
+        scheduler.submit(SearchJob.forGame(engine, GameEngine.PLAYER_O,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, result);
+
+        assertTrue(result.await());
+        assertEquals(2, result.move.get());
+    }
+
+    @Test
+    public void heavySearch_doesNotStarveClassicGame() throws InterruptedException {
+        GameEngine heavyEngine = new GameEngine(GOMOKU_SIZE, 5);
+        heavyEngine.play(GOMOKU_SIZE * 7 + 7);
+        Result heavy = new Result();
+        scheduler.submit(SearchJob.forGame(heavyEngine, GameEngine.PLAYER_O,
+                GameEngine.UNLIMITED_DEPTH), HEAVY_BUDGET_MILLIS, heavy);
+
+        // Let the heavy search get going before the 3 by 3 game asks for a move
+        Thread.sleep(100);
+
+        Result light = new Result();
+        scheduler.submit(SearchJob.forGame(new GameEngine(3), GameEngine.PLAYER_X,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, light);
+
+        // The 3 by 3 game gets its move first, the heavy search still finishes by its own
+        // deadline with a legal move
+        assertTrue(light.await());
+        assertTrue(heavy.await());
+        assertTrue(light.order < heavy.order);
+        assertEquals(GameEngine.EMPTY, heavyEngine.getCell(heavy.move.get()));
+    }
+
+    @Test
+    public void proofSearch_doesNotStarveClassicGame() throws InterruptedException {
+        // O to move on a 7 by 7 board with 4 in a row to win. O has a forcing threat, so the
+        // depth-limited search starts with a proof search that can't finish within the budget
+        GameEngine proofEngine = new GameEngine(7, 4);
+        for (int cell : new int[]{41, 25, 33, 19, 32, 39, 11, 6, 5, 34, 23})
+            proofEngine.play(cell);
+        Result proof = new Result();
+        scheduler.submit(SearchJob.forGame(proofEngine, GameEngine.PLAYER_O, 6),
+                PROOF_BUDGET_MILLIS, proof);
+
+        Result light = new Result();
+        scheduler.submit(SearchJob.forGame(new GameEngine(3), GameEngine.PLAYER_X,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, light);
+
+        // The proof search gives way to the 3 by 3 game, then stops at its deadline with a
+        // legal move instead of running until the proof is done
+        assertTrue(light.await());
+        assertTrue(proof.await());
+        assertTrue(light.order < proof.order);
+        assertEquals(GameEngine.EMPTY, proofEngine.getCell(proof.move.get()));
+    }
+
+    @Test
+    public void firstIteration_stopsAtDeadline() throws InterruptedException {
+        Result result = new Result();
+        scheduler.submit(new EndlessJob(), LIGHT_BUDGET_MILLIS, result);
+
+        // The job only stops when its control says so, which has to happen at the deadline
+        assertTrue(result.await());
+        assertEquals(FALLBACK_MOVE, result.move.get());
+    }
+
+    @Test
+    public void failedSearch_reportsFallbackMove() throws InterruptedException {
+        Result result = new Result();
+        AiScheduler.Ticket ticket = scheduler.submit(new EndlessJob() {
+            @Override
+            int searchDepth(int depth, SearchControl control) {
+                throw new IllegalStateException("Broken search");
+            }
+        }, LIGHT_BUDGET_MILLIS, result);
+
+        assertTrue(result.await());
+        assertEquals(FALLBACK_MOVE, result.move.get());
+        assertTrue(ticket.isDone());
+        assertTrue(ticket.getError() instanceof IllegalStateException);
+
+        // The worker survived and takes the next search
+        Result next = new Result();
+        scheduler.submit(SearchJob.forGame(new GameEngine(3), GameEngine.PLAYER_X,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, next);
+        assertTrue(next.await());
+    }
+
+    @Test
+    public void searchError_reportsFallbackMove() throws InterruptedException {
+        Result result = new Result();
+        AiScheduler.Ticket ticket = scheduler.submit(new EndlessJob() {
+            @Override
+            int searchDepth(int depth, SearchControl control) {
+                throw new StackOverflowError();
+            }
+        }, LIGHT_BUDGET_MILLIS, result);
+
+        assertTrue(result.await());
+        assertEquals(FALLBACK_MOVE, result.move.get());
+        assertTrue(ticket.getError() instanceof StackOverflowError);
+
+        Result next = new Result();
+        scheduler.submit(SearchJob.forGame(new GameEngine(3), GameEngine.PLAYER_X,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, next);
+        assertTrue(next.await());
+    }
+
+    @Test
+    public void failedCallback_keepsWorker() throws InterruptedException {
+        AiScheduler.Ticket ticket = scheduler.submit(SearchJob.forGame(new GameEngine(3),
+                GameEngine.PLAYER_X, GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS,
+                new AiScheduler.Callback() {
+                    @Override
+                    public void onMoveReady(int move) {
+                        throw new IllegalStateException("Broken callback");
+                    }
+                });
+
+        // The single worker only takes the next search if it survived the callback
+        Result next = new Result();
+        scheduler.submit(SearchJob.forGame(new GameEngine(3), GameEngine.PLAYER_X,
+                GameEngine.UNLIMITED_DEPTH), LIGHT_BUDGET_MILLIS, next);
+        assertTrue(next.await());
+        assertTrue(ticket.isDone());
+        assertTrue(ticket.getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void cancelledSearch_neverReports() throws InterruptedException {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+        engine.play(GOMOKU_SIZE * 7 + 7);
+        Result result = new Result();
+
+        AiScheduler.Ticket ticket = scheduler.submit(SearchJob.forGame(engine,
+                GameEngine.PLAYER_O, GameEngine.UNLIMITED_DEPTH), HEAVY_BUDGET_MILLIS, result);
+        Thread.sleep(50);
+        ticket.cancel();
+
+        assertTrue(ticket.isDone());
+        assertFalse(result.latch.await(HEAVY_BUDGET_MILLIS * 2, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Never finishes an iteration unless its control stops it
+     */
+    private static class EndlessJob extends SearchJob {
+        @Override
+        int searchDepth(int depth, SearchControl control) {
+            while (!control.shouldStop())
+                Thread.yield();
+            return ABORTED;
+        }
+
+        @Override
+        int getMaxDepth() {
+            return 1;
+        }
+
+        @Override
+        int getFallbackMove() {
+            return FALLBACK_MOVE;
+        }
+    }
+
+    /**
+     * Records the reported move and in which order it arrived
+     */
+    private class Result implements AiScheduler.Callback {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger move = new AtomicInteger(GameEngine.NO_MOVE);
+        volatile int order;
+
+        @Override
+        public void onMoveReady(int move) {
+            this.move.set(move);
+            order = completions.incrementAndGet();
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.tictactoe;
+
+import java.util.Random;
+
+/**
+ * Measures how many 3 by 3 boards per second BoardBatch checks for a winner, against the scalar
+ * mask table lookup and a port of GameViewModel.checkForWinner()'s char[][] scan. Not part of the
+ * unit tests, timings depend on the machine and its load. Run main() from the IDE on an idle
+ * machine.
+ */
+public class BoardBatchBenchmark {
+    private static final int BOARD_COUNT = 64 * 1024 + 5;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final int NO_ONE_WINS = -1;
+
+    public static void main(String[] args) {
+        Random random = new Random(64);
+        BoardBatch batch = new BoardBatch(BOARD_COUNT);
+        byte[][] cells = new byte[BOARD_COUNT][];
+        BoardBatchTest.fillRandomGames(batch, cells, random);
+
+        // The scalar paths get their boards in their own layouts, as callers would keep them
+        char[][][] charBoards = new char[BOARD_COUNT][3][3];
+        int[] xMasks = new int[BOARD_COUNT];
+        int[] oMasks = new int[BOARD_COUNT];
+        for (int board = 0; board < BOARD_COUNT; board++) {
+            xMasks[board] = batch.getXMask(board);
+            oMasks[board] = batch.getOMask(board);
+            for (int cell = 0; cell < 9; cell++) {
+                charBoards[board][cell / 3][cell % 3] = cells[board][cell] == GameEngine.PLAYER_X
+                        ? 'X' : cells[board][cell] == GameEngine.PLAYER_O ? 'O' : ' ';
+            }
+        }
+
+        long[] xWins = new long[batch.getGroupCount()];
+        long[] oWins = new long[batch.getGroupCount()];
+        long sink = 0;
+
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            sink += batch.findWinners(xWins, oWins);
+            sink += countMaskWinners(xMasks, oMasks);
+            sink += countCharWinners(charBoards);
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++)
+            sink += batch.findWinners(xWins, oWins);
+        long slicedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++)
+            sink += countMaskWinners(xMasks, oMasks);
+        long maskNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++)
+            sink += countCharWinners(charBoards);
+        long charNanos = System.nanoTime() - start;
+
+        long boards = (long) BOARD_COUNT * MEASURED_ROUNDS;
+        System.out.println(String.format("Boards per second: bit-sliced %,d, mask table %,d, "
+                        + "checkForWinner() scan %,d (%d)", boards * 1000000000L / slicedNanos,
+                boards * 1000000000L / maskNanos, boards * 1000000000L / charNanos, sink));
+    }
+
+    private static int countMaskWinners(int[] xMasks, int[] oMasks) {
+        int count = 0;
+        for (int board = 0; board < xMasks.length; board++) {
+            if (BoardBatch.winner(xMasks[board], oMasks[board]) != GameEngine.EMPTY)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * GameViewModel.checkForWinner()'s scan, ported to take the board as an argument: counts the
+     * moves of each player in both diagonals, every row and every column, in that order
+     */
+    private static int countCharWinners(char[][][] boards) {
+        int count = 0;
+        for (char[][] board : boards) {
+            if (checkForWinner(board) != 0)
+                count++;
+        }
+        return count;
+    }
+
+    private static int checkForWinner(char[][] board) {
+        int playerXCount = 0;
+        int playerOCount = 0;
+
+        // Check negative sloped diagonal
+        for (int i = 0; i < 3; i++) {
+            if (!(board[i][i] == ' ')) {
+                if (board[i][i] == 'X')
+                    playerXCount++;
+                else
+                    playerOCount++;
+            }
+        }
+
+        if (winnerScore(playerXCount, playerOCount) != NO_ONE_WINS)
+            return winnerScore(playerXCount, playerOCount);
+
+        playerOCount = 0;
+        playerXCount = 0;
+
+        // Check positive sloped diagonal
+        for (int i = 0; i < 3; i++) {
+            if (!(board[i][3 - (i + 1)] == ' ')) {
+                if (board[i][3 - (i + 1)] == 'X')
+                    playerXCount++;
+                else
+                    playerOCount++;
+            }
+        }
+
+        if (winnerScore(playerXCount, playerOCount) != NO_ONE_WINS)
+            return winnerScore(playerXCount, playerOCount);
+
+        playerOCount = 0;
+        playerXCount = 0;
+
+        // Check every row
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (!(board[row][col] == ' ')) {
+                    if (board[row][col] == 'X')
+                        playerXCount++;
+                    else
+                        playerOCount++;
+                }
+            }
+
+            if (winnerScore(playerXCount, playerOCount) != NO_ONE_WINS)
+                return winnerScore(playerXCount, playerOCount);
+
+            playerOCount = 0;
+            playerXCount = 0;
+        }
+
+        // Check every column
+        for (int col = 0; col < 3; col++) {
+            for (int row = 0; row < 3; row++) {
+                if (!(board[row][col] == ' ')) {
+                    if (board[row][col] == 'X')
+                        playerXCount++;
+                    else
+                        playerOCount++;
+                }
+            }
+
+            if (winnerScore(playerXCount, playerOCount) != NO_ONE_WINS)
+                return winnerScore(playerXCount, playerOCount);
+
+            playerOCount = 0;
+            playerXCount = 0;
+        }
+        return 0;
+    }
+
+    private static int winnerScore(int plrX, int plrO) {
+        if (plrX == 3)
+            return 10;
+        else if (plrO == 3)
+            return -10;
+        else
+            return NO_ONE_WINS;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the bit-sliced BoardBatch. BoardBatchBenchmark measures its speed.
+ */
+public class BoardBatchTest {
+    private static final int BOARD_COUNT = 64 * 1024 + 5;
+
+    @Test
+    public void bitSlicedWinners_matchEngine() {
+        Random random = new Random(32);
+        BoardBatch batch = new BoardBatch(BOARD_COUNT);
+        byte[][] cells = new byte[BOARD_COUNT][];
+        fillRandomGames(batch, cells, random);
+
+        byte[] sliced = new byte[BOARD_COUNT];
+        byte[] scalar = new byte[BOARD_COUNT];
+        int slicedCount = batch.findWinners(sliced);
+        int scalarCount = batch.findWinnersScalar(scalar);
+
+        GameEngine engine = new GameEngine(3);
+        int expectedCount = 0;
+        for (int board = 0; board < BOARD_COUNT; board++) {
+            engine.setPosition(cells[board]);
+            assertEquals("Board " + board, engine.getWinner(), sliced[board]);
+            if (sliced[board] != GameEngine.EMPTY)
+                expectedCount++;
+        }
+
+        assertArrayEquals(scalar, sliced);
+        assertEquals(expectedCount, slicedCount);
+        assertEquals(expectedCount, scalarCount);
+        assertTrue("No finished games were generated", expectedCount > 0);
+    }
+
+    @Test
+    public void set_replacesBoard() {
+        BoardBatch batch = new BoardBatch(100);
+        batch.play(70, 4, GameEngine.PLAYER_X);
+        batch.set(70, 0x007, 0x030);
+
+        assertEquals(0x007, batch.getXMask(70));
+        assertEquals(0x030, batch.getOMask(70));
+        assertEquals(0, batch.getXMask(69));
+
+        long[] xWins = new long[batch.getGroupCount()];
+        long[] oWins = new long[batch.getGroupCount()];
+        assertEquals(1, batch.findWinners(xWins, oWins));
+        assertEquals(1L << (70 - BoardBatch.LANES), xWins[1]);
+        assertEquals(0, oWins[1]);
+    }
+
+    /**
+     * Plays a random number of random moves on every board, stopping when someone wins
+     */
+    static void fillRandomGames(BoardBatch batch, byte[][] cells, Random random) {
+        for (int board = 0; board < cells.length; board++) {
+            byte[] boardCells = new byte[9];
+            int xMask = 0;
+            int oMask = 0;
+            int moves = random.nextInt(10);
+
+            for (int move = 0; move < moves; move++) {
+                int cell;
+                do {
+                    cell = random.nextInt(9);
+                } while (boardCells[cell] != GameEngine.EMPTY);
+
+                if (move % 2 == 0) {
+                    boardCells[cell] = GameEngine.PLAYER_X;
+                    xMask |= 1 << cell;
+                } else {
+                    boardCells[cell] = GameEngine.PLAYER_O;
+                    oMask |= 1 << cell;
+                }
+
+                if (BoardBatch.winner(xMask, oMask) != GameEngine.EMPTY)
+                    break;
+            }
+
+            cells[board] = boardCells;
+            batch.set(board, xMask, oMask);
+        }
+    }
+}
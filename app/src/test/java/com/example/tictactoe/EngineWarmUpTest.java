@@ -0,0 +1,85 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the cold start instrumentation and the background engine warm-up
+ */
+public class EngineWarmUpTest {
+    @Test
+    public void startupTimer_keepsFirstMark() {
+        StartupTimer timer = new StartupTimer();
+
+        assertEquals(-1, timer.getMillis(StartupTimer.MAIN_CREATED));
+        assertTrue(timer.mark(StartupTimer.MAIN_CREATED));
+        long created = timer.getMillis(StartupTimer.MAIN_CREATED);
+        assertFalse(timer.mark(StartupTimer.MAIN_CREATED));
+        assertTrue(timer.mark(StartupTimer.FIRST_FRAME));
+
+        assertEquals(created, timer.getMillis(StartupTimer.MAIN_CREATED));
+        assertTrue(timer.getMillis(StartupTimer.FIRST_FRAME) >= created);
+        assertTrue(timer.summary().startsWith(StartupTimer.MAIN_CREATED + "="));
+    }
+
+    @Test
+    public void warmUp_marksEveryPhaseInOrder() throws InterruptedException {
+        StartupTimer timer = new StartupTimer();
+        EngineWarmUp warmUp = new EngineWarmUp(timer);
+
+        Thread thread = new Thread(warmUp);
+        thread.start();
+        assertTrue(warmUp.await(10000));
+
+        long classes = timer.getMillis(StartupTimer.WARM_UP_CLASSES);
+        long classic = timer.getMillis(StartupTimer.WARM_UP_CLASSIC);
+        long ultimate = timer.getMillis(StartupTimer.WARM_UP_ULTIMATE);
+
+        assertTrue(classes >= 0);
+        assertTrue(classic >= classes);
+        assertTrue(ultimate >= classic);
+        assertTrue(warmUp.isDone());
+    }
+
+    @Test
+    public void warmedEngine_searchesFirstMoveFromTable() {
+        EngineWarmUp warmUp = new EngineWarmUp(new StartupTimer());
+        warmUp.run();
+
+        GameEngine warmed = warmUp.takeClassicEngine();
+        GameEngine cold = new GameEngine(3);
+
+        // The user opens in a corner, the computer answers as in hard mode
+        warmed.playAs(0, GameEngine.PLAYER_X);
+        cold.playAs(0, GameEngine.PLAYER_X);
+        int warmedMove = warmed.findBestMove(GameEngine.PLAYER_O, GameEngine.UNLIMITED_DEPTH);
+        int coldMove = cold.findBestMove(GameEngine.PLAYER_O, GameEngine.UNLIMITED_DEPTH);
+
+        // Most replies are cut off by the bounds the warm-up left in the table
+        assertEquals(4, warmedMove);
+        assertEquals(coldMove, warmedMove);
+        assertTrue(warmed.getNodeCount() * 2 < cold.getNodeCount());
+
+        // The warmed engine belongs to one game only
+        assertTrue(warmed != warmUp.takeClassicEngine());
+    }
+
+    @Test
+    public void warmedUltimateEngine_startsAtEmptyBoard() {
+        EngineWarmUp warmUp = new EngineWarmUp(new StartupTimer());
+        warmUp.run();
+
+        // The warm-up search leaves the position as it found it
+        UltimateEngine warmed = warmUp.takeUltimateEngine();
+        assertEquals(0, warmed.getMoveCount());
+        assertEquals(GameEngine.PLAYER_X, warmed.sideToMove());
+        assertEquals(UltimateEngine.ANY_BOARD, warmed.getActiveBoard());
+
+        // and is ready for the first game
+        warmed.play(40);
+        assertTrue(warmed.isLegal(warmed.findBestMove(4, Long.MAX_VALUE)));
+
+        assertTrue(warmed != warmUp.takeUltimateEngine());
+    }
+}
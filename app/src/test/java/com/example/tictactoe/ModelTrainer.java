@@ -0,0 +1,326 @@
+package com.example.tictactoe;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trains a MoveModel offline from self-play. A development tool kept with the tests, it isn't
+ * part of the app: run main() from the IDE to train a model.
+ *
+ * Games are played by GameEngine alpha-beta searches to a fixed depth, with a few random moves
+ * mixed in so the games don't all repeat. Every position is recorded with the window counts of
+ * the board and of each candidate move, then two linear models are fitted:
+ * - The line weights by logistic regression of the game result on the number of windows each
+ *   player has with 1 to winLength - 1 moves in them.
+ * - The attack and defense weights by a softmax over the candidate moves that makes the move the
+ *   search played come out on top.
+ */
+public class ModelTrainer {
+    // Self-play settings
+    private static final int TABLE_BITS = 16;
+    private static final int MAX_OPENING_MOVES = 3;
+    private static final double RANDOM_MOVE_RATE = 0.1;
+
+    // Gradient descent settings, AdaGrad step sizes
+    private static final int EPOCHS = 60;
+    private static final double LEARNING_RATE = 0.1;
+    private static final double L2 = 1e-4;
+
+    // Largest quantized weight of each table
+    private static final int MAX_LINE_WEIGHT = 8192;
+    private static final int MAX_ORDER_WEIGHT = 1000;
+
+    private final int mSize;
+    private final int mWinLength;
+    private final Random mRandom;
+
+    // Value records: window counts of the position, and the result for X (1 win, 0.5 draw, 0 loss)
+    private final List<double[]> mValueFeatures = new ArrayList<>();
+    private final List<Double> mValueTargets = new ArrayList<>();
+
+    // Policy records: per position the features of every candidate, the played one first
+    private final List<double[][]> mPolicyFeatures = new ArrayList<>();
+
+    /**
+     * @param size      Number of rows and columns of the self-play board
+     * @param winLength Number of moves in a line needed to win
+     * @param seed      Seed for the random moves, the same seed trains the same model
+     */
+    public ModelTrainer(int size, int winLength, long seed) {
+        mSize = size;
+        mWinLength = winLength;
+        mRandom = new Random(seed);
+    }
+
+    /**
+     * Plays self-play games and adds their positions to the training records
+     *
+     * @param games Number of games to play
+     * @param depth Search depth of the players
+     */
+    public void playGames(int games, int depth) {
+        GameEngine engine = new GameEngine(mSize, mWinLength, TABLE_BITS);
+        int[] candidates = new int[engine.getCellCount()];
+
+        for (int game = 0; game < games; game++) {
+            engine.reset();
+            engine.clearTable();
+            int firstRecord = mValueFeatures.size();
+            int openingMoves = mRandom.nextInt(MAX_OPENING_MOVES + 1);
+
+            while (!engine.isGameOver()) {
+                int count = engine.generateMoves(candidates);
+                int move;
+
+                if (engine.getMoveCount() < openingMoves
+                        || mRandom.nextDouble() < RANDOM_MOVE_RATE) {
+                    move = candidates[mRandom.nextInt(count)];
+                } else {
+                    // Plain alpha-beta, proof-number searches would cost far more per move
+                    engine.search(depth);
+                    move = engine.getBestMove();
+                    recordPolicy(engine, candidates, count, move);
+                }
+
+                mValueFeatures.add(valueFeatures(engine));
+                engine.play(move);
+            }
+
+            double result = engine.getWinner() == GameEngine.PLAYER_X ? 1
+                    : engine.getWinner() == GameEngine.PLAYER_O ? 0 : 0.5;
+            for (int i = firstRecord; i < mValueFeatures.size(); i++)
+                mValueTargets.add(result);
+        }
+    }
+
+    /**
+     * Fits the model to the records played so far
+     */
+    public MoveModel train() {
+        double[] lineWeights = fitValue();
+        double[] orderWeights = fitPolicy();
+
+        int[] line = quantize(lineWeights, MAX_LINE_WEIGHT);
+        // Attack and defense weights are added together, so they share one scale
+        int[] order = quantize(orderWeights, MAX_ORDER_WEIGHT);
+
+        return new MoveModel(mWinLength, line, Arrays.copyOfRange(order, 0, mWinLength),
+                Arrays.copyOfRange(order, mWinLength, order.length));
+    }
+
+    /**
+     * Feature c (1 to winLength - 1) is the number of windows holding c X moves and no O moves,
+     * minus the number holding c O moves and no X moves
+     */
+    private double[] valueFeatures(GameEngine engine) {
+        double[] features = new double[mWinLength];
+        int[] counts = windowCounts(engine);
+
+        for (int window = 0; window < engine.getWindowCount(); window++) {
+            int x = counts[window * 2];
+            int o = counts[window * 2 + 1];
+
+            if (x > 0 && o == 0 && x < mWinLength)
+                features[x]++;
+            else if (o > 0 && x == 0 && o < mWinLength)
+                features[o]--;
+        }
+        return features;
+    }
+
+    /**
+     * Features of a candidate: entry c counts the windows through the cell with c of the mover's
+     * moves and none of the opponent's, entry winLength + c the reverse
+     */
+    private void recordPolicy(GameEngine engine, int[] candidates, int count, int played) {
+        if (count < 2)
+            return;
+
+        int[] counts = windowCounts(engine);
+        boolean xToMove = engine.sideToMove() == GameEngine.PLAYER_X;
+        double[][] features = new double[count][];
+        int next = 1;
+
+        for (int i = 0; i < count; i++) {
+            double[] cellFeatures = new double[mWinLength * 2];
+
+            for (int window = 0; window < engine.getWindowCount(); window++) {
+                if (!windowContains(engine, window, candidates[i]))
+                    continue;
+
+                int own = counts[window * 2 + (xToMove ? 0 : 1)];
+                int other = counts[window * 2 + (xToMove ? 1 : 0)];
+                if (other == 0)
+                    cellFeatures[own]++;
+                if (own == 0)
+                    cellFeatures[mWinLength + other]++;
+            }
+
+            if (candidates[i] == played)
+                features[0] = cellFeatures;
+            else if (next < count)
+                features[next++] = cellFeatures;
+        }
+
+        if (features[0] != null)
+            mPolicyFeatures.add(features);
+    }
+
+    private int[] windowCounts(GameEngine engine) {
+        int[] counts = new int[engine.getWindowCount() * 2];
+
+        for (int window = 0; window < engine.getWindowCount(); window++) {
+            for (int i = 0; i < mWinLength; i++) {
+                byte cell = engine.getCell(engine.getWindowCell(window, i));
+                if (cell == GameEngine.PLAYER_X)
+                    counts[window * 2]++;
+                else if (cell == GameEngine.PLAYER_O)
+                    counts[window * 2 + 1]++;
+            }
+        }
+        return counts;
+    }
+
+    private boolean windowContains(GameEngine engine, int window, int cell) {
+        for (int i = 0; i < mWinLength; i++) {
+            if (engine.getWindowCell(window, i) == cell)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Logistic regression of the result for X on the value features, without a bias since the
+     * board is symmetric between the players
+     */
+    private double[] fitValue() {
+        double[] weights = new double[mWinLength];
+        double[] squaredGradients = new double[mWinLength];
+
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            double[] gradient = new double[mWinLength];
+
+            for (int record = 0; record < mValueFeatures.size(); record++) {
+                double[] features = mValueFeatures.get(record);
+                double error = sigmoid(dot(weights, features)) - mValueTargets.get(record);
+
+                for (int i = 0; i < mWinLength; i++)
+                    gradient[i] += error * features[i];
+            }
+            step(weights, gradient, squaredGradients, mValueFeatures.size());
+        }
+        return weights;
+    }
+
+    /**
+     * Softmax regression over the candidates of every recorded position, the played move being
+     * the target
+     */
+    private double[] fitPolicy() {
+        double[] weights = new double[mWinLength * 2];
+        double[] squaredGradients = new double[weights.length];
+
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            double[] gradient = new double[weights.length];
+
+            for (double[][] candidates : mPolicyFeatures) {
+                double[] scores = new double[candidates.length];
+                double max = Double.NEGATIVE_INFINITY;
+
+                for (int i = 0; i < candidates.length; i++) {
+                    scores[i] = dot(weights, candidates[i]);
+                    max = Math.max(max, scores[i]);
+                }
+
+                double total = 0;
+                for (int i = 0; i < candidates.length; i++) {
+                    scores[i] = Math.exp(scores[i] - max);
+                    total += scores[i];
+                }
+
+                for (int i = 0; i < candidates.length; i++) {
+                    double error = scores[i] / total - (i == 0 ? 1 : 0);
+                    for (int j = 0; j < weights.length; j++)
+                        gradient[j] += error * candidates[i][j];
+                }
+            }
+            step(weights, gradient, squaredGradients, mPolicyFeatures.size());
+        }
+        return weights;
+    }
+
+    private static void step(double[] weights, double[] gradient, double[] squaredGradients,
+                             int records) {
+        if (records == 0)
+            return;
+
+        for (int i = 0; i < weights.length; i++) {
+            double g = gradient[i] / records + L2 * weights[i];
+            squaredGradients[i] += g * g;
+            weights[i] -= LEARNING_RATE * g / (Math.sqrt(squaredGradients[i]) + 1e-8);
+        }
+    }
+
+    private static double dot(double[] weights, double[] features) {
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++)
+            sum += weights[i] * features[i];
+        return sum;
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    /**
+     * Rounds weights to ints, scaled so the largest becomes max
+     */
+    private static int[] quantize(double[] weights, int max) {
+        double largest = 0;
+        for (double weight : weights)
+            largest = Math.max(largest, Math.abs(weight));
+
+        int[] quantized = new int[weights.length];
+        for (int i = 0; i < weights.length; i++)
+            quantized[i] = largest == 0 ? 0 : (int) Math.round(weights[i] / largest * max);
+        return quantized;
+    }
+
+    public int getPositionCount() {
+        return mValueFeatures.size();
+    }
+
+    /**
+     * Trains a model and writes it to a file
+     *
+     * Usage: ModelTrainer size winLength games depth seed output
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6)
+            throw new IllegalArgumentException(
+                    "Usage: ModelTrainer size winLength games depth seed output");
+
+        ModelTrainer trainer = new ModelTrainer(Integer.parseInt(args[0]),
+                Integer.parseInt(args[1]), Long.parseLong(args[4]));
+        trainer.playGames(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        MoveModel model = trainer.train();
+
+        OutputStream out = new FileOutputStream(args[5]);
+        try {
+            model.write(out);
+        } finally {
+            out.close();
+        }
+
+        System.out.println("Trained on " + trainer.getPositionCount() + " positions");
+        System.out.println("Line weights " + Arrays.toString(model.getLineWeights()));
+        System.out.println("Attack weights " + Arrays.toString(model.getAttackWeights()));
+        System.out.println("Defense weights "
+                + Arrays.toString(model.getDefenseWeights()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the self-play trained MoveModel
+ */
+public class MoveModelTest {
+    private static final int GOMOKU_SIZE = 15;
+    private static final int GOMOKU_WIN_LENGTH = 5;
+    private static final String GOMOKU_MODEL = "move_model_k5.bin";
+
+    @Test
+    public void writeThenRead_keepsWeights() throws IOException {
+        MoveModel model = new MoveModel(4, new int[]{0, 10, 200, 3000},
+                new int[]{5, 50, 500, 1000}, new int[]{-5, 40, 400, 900});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.write(out);
+        MoveModel read = MoveModel.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // Header of 11 bytes and 3 tables of 4 shorts
+        assertEquals(11 + 3 * 4 * 2, out.size());
+        assertEquals(4, read.getWinLength());
+        assertArrayEquals(model.getLineWeights(), read.getLineWeights());
+        assertArrayEquals(model.getAttackWeights(), read.getAttackWeights());
+        assertArrayEquals(model.getDefenseWeights(), read.getDefenseWeights());
+    }
+
+    @Test
+    public void largeWeights_areQuantized() throws IOException {
+        MoveModel model = new MoveModel(3, new int[]{0, 7, 100000}, new int[3], new int[3]);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        model.write(out);
+        int[] read = MoveModel.read(new ByteArrayInputStream(out.toByteArray())).getLineWeights();
+
+        // 100000 needs a scale of 4 to fit in a short
+        assertEquals(100000, read[2]);
+        assertEquals(8, read[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherData() throws IOException {
+        MoveModel.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}));
+    }
+
+    @Test
+    public void modelOrdering_searchesFewerNodes() throws IOException {
+        MoveModel model = loadGomokuModel();
+        assertEquals(GOMOKU_WIN_LENGTH, model.getWinLength());
+        Random random = new Random(33);
+        int[] moves = new int[GOMOKU_SIZE * GOMOKU_SIZE];
+        long fixedOrderNodes = 0;
+        long modelOrderNodes = 0;
+
+        for (int trial = 0; trial < 8; trial++) {
+            // Both engines evaluate leaves the same way, only the move order differs
+            GameEngine fixedOrder = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+            GameEngine modelOrder = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+            fixedOrder.setEvaluator(model.createEvaluator());
+            modelOrder.setModel(model);
+
+            int center = GOMOKU_SIZE * (GOMOKU_SIZE / 2) + GOMOKU_SIZE / 2;
+            fixedOrder.play(center);
+            modelOrder.play(center);
+            for (int i = 0; i < 5; i++) {
+                int count = fixedOrder.generateMoves(moves);
+                int move = moves[random.nextInt(Math.min(count, 12))];
+                fixedOrder.play(move);
+                modelOrder.play(move);
+            }
+
+            assertEquals(fixedOrder.search(4), modelOrder.search(4));
+            fixedOrderNodes += fixedOrder.getNodeCount();
+            modelOrderNodes += modelOrder.getNodeCount();
+        }
+
+        assertTrue("Model order " + modelOrderNodes + " nodes, fixed order " + fixedOrderNodes,
+                modelOrderNodes * 3 < fixedOrderNodes);
+    }
+
+    @Test
+    public void trainer_learnsToCompleteLines() {
+        ModelTrainer trainer = new ModelTrainer(7, 4, 1);
+        trainer.playGames(100, 2);
+        MoveModel model = trainer.train();
+        int[] attack = model.getAttackWeights();
+        int[] line = model.getLineWeights();
+
+        assertTrue(trainer.getPositionCount() > 0);
+        for (int count = 1; count < 3; count++) {
+            assertTrue("Attack weights " + Arrays.toString(attack),
+                    attack[3] > attack[count]);
+            assertTrue("Line weights " + Arrays.toString(line),
+                    line[count + 1] > line[count]);
+        }
+    }
+
+    /**
+     * The five in a row model trained with ModelTrainer 9 5 2000 3 2019
+     */
+    private static MoveModel loadGomokuModel() throws IOException {
+        InputStream in = MoveModelTest.class.getResourceAsStream(GOMOKU_MODEL);
+        try {
+            return MoveModel.read(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the static evaluation of K in a row boards
+ */
+public class PatternEvaluatorTest {
+    private static final int GOMOKU_SIZE = 15;
+    private static final int GOMOKU_WIN_LENGTH = 5;
+
+    @Test
+    public void incrementalEvaluation_matchesFullRescan() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+        PatternEvaluator evaluator = engine.getEvaluator();
+        Random random = new Random(42);
+        int[] played = new int[engine.getCellCount()];
+        int moves = 0;
+
+        for (int step = 0; step < 2000; step++) {
+            // Mostly play, sometimes take moves back
+            if (moves > 0 && (random.nextInt(3) == 0 || engine.isGameOver())) {
+                engine.undo(played[--moves]);
+            } else if (!engine.isGameOver()) {
+                int cell;
+                do {
+                    cell = random.nextInt(engine.getCellCount());
+                } while (engine.getCell(cell) != GameEngine.EMPTY);
+
+                engine.play(cell);
+                played[moves++] = cell;
+            }
+            assertEquals(evaluator.evaluate(engine), engine.getEvaluation());
+        }
+    }
+
+    @Test
+    public void openThree_beatsBlockedThree() {
+        GameEngine open = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+        GameEngine blocked = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+
+        // X X X in the middle of row 7, with an O at the far end of row 0 to even the move count
+        playAll(open, cell(7, 5), cell(0, 14), cell(7, 6), cell(1, 14), cell(7, 7));
+        // Same three, blocked on the left by O
+        playAll(blocked, cell(7, 5), cell(7, 4), cell(7, 6), cell(1, 14), cell(7, 7));
+
+        assertTrue(open.getEvaluation() > blocked.getEvaluation());
+    }
+
+    @Test
+    public void brokenFour_isBlocked() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+
+        // X has X X . X X on row 7, O has to fill the gap
+        playAll(engine, cell(7, 3), cell(0, 0), cell(7, 4), cell(0, 14), cell(7, 6),
+                cell(14, 0), cell(7, 7));
+        engine.search(3);
+
+        assertEquals(cell(7, 5), engine.getBestMove());
+    }
+
+    @Test
+    public void openThree_isExtendedToOpenFour() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, GOMOKU_WIN_LENGTH);
+
+        // X to move with an open three on row 7, O's moves are harmless
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+        int score = engine.search(3);
+        int best = engine.getBestMove();
+
+        assertTrue(best == cell(7, 4) || best == cell(7, 8));
+        assertTrue(score > 0);
+    }
+
+    @Test
+    public void longWinLength_weightsDoNotOverflow() {
+        int winLength = 16;
+        PatternEvaluator evaluator = new PatternEvaluator(winLength);
+
+        for (int count = 2; count < winLength; count++) {
+            assertTrue(evaluator.windowScore(count, 0) >= evaluator.windowScore(count - 1, 0));
+            assertTrue(evaluator.windowScore(count, 0) <= PatternEvaluator.MAX_EVALUATION);
+        }
+
+        // X fills all but one cell of the top row of the classic 16 by 16 game
+        GameEngine engine = new GameEngine(winLength);
+        for (int col = 0; col < winLength - 1; col++)
+            engine.playAs(col, GameEngine.PLAYER_X);
+
+        assertEquals(evaluator.evaluate(engine), engine.getEvaluation());
+        assertTrue(engine.getEvaluation() >= evaluator.windowScore(winLength - 1, 0));
+        assertEquals(winLength - 1, engine.findBestMove(GameEngine.PLAYER_X, 1));
+    }
+
+    private static int cell(int row, int col) {
+        return row * GOMOKU_SIZE + col;
+    }
+
+    private static void playAll(GameEngine engine, int... cells) {
+        for (int cell : cells)
+            engine.play(cell);
+    }
+}
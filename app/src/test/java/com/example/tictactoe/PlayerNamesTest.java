@@ -0,0 +1,40 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the PlayerNames that key the players' profiles
+ */
+public class PlayerNamesTest {
+    @Test
+    public void clean_trimsAndCollapsesWhiteSpace() {
+        assertEquals("Ann Lee", PlayerNames.clean("  Ann \t  Lee "));
+        assertEquals("", PlayerNames.clean("   "));
+        assertEquals("", PlayerNames.clean(null));
+        assertEquals(PlayerNames.MAX_LENGTH,
+                PlayerNames.clean("abcdefghijklmnopqrstuvwxyz").length());
+    }
+
+    @Test
+    public void profileId_ignoresCaseAndSpacing() {
+        assertEquals(PlayerNames.toProfileId("Ann Lee"), PlayerNames.toProfileId(" ann  LEE"));
+        assertEquals("ann", PlayerNames.toProfileId("Ann"));
+    }
+
+    @Test
+    public void profileId_keepsDifferentNamesApart() {
+        String[] names = {"ann lee", "ann_lee", "annlee", "ann-lee", "ann_0020lee", "zo\u00eb",
+                "zoe"};
+
+        for (int i = 0; i < names.length; i++) {
+            String id = PlayerNames.toProfileId(names[i]);
+            assertTrue(id, id.matches("[a-z0-9_]+"));
+
+            for (int j = i + 1; j < names.length; j++)
+                assertFalse(names[i] + " " + names[j],
+                        id.equals(PlayerNames.toProfileId(names[j])));
+        }
+    }
+}
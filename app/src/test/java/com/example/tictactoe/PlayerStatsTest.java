@@ -0,0 +1,90 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the lifetime PlayerStats
+ */
+public class PlayerStatsTest {
+    @Test
+    public void results_areCountedPerMode() {
+        PlayerStats stats = new PlayerStats();
+        stats.recordGame(PlayerStats.MODE_EASY, PlayerStats.WIN, 1000);
+        stats.recordGame(PlayerStats.MODE_EASY, PlayerStats.DRAW, 1000);
+        stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.LOSS, 1600);
+        stats.recordGame(PlayerStats.MODE_ULTIMATE, PlayerStats.WIN, 1500);
+
+        assertEquals(1, stats.getWins(PlayerStats.MODE_EASY));
+        assertEquals(1, stats.getDraws(PlayerStats.MODE_EASY));
+        assertEquals(1, stats.getLosses(PlayerStats.MODE_HARD));
+        assertEquals(1, stats.getWins(PlayerStats.MODE_ULTIMATE));
+        assertEquals(0, stats.getWins(PlayerStats.MODE_MULTI_PLAYER));
+        assertEquals(4, stats.getGamesPlayed());
+    }
+
+    @Test
+    public void streaks_followResults() {
+        PlayerStats stats = new PlayerStats();
+        for (int i = 0; i < 3; i++)
+            stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.WIN, 1600);
+        assertEquals(3, stats.getStreak());
+
+        stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.LOSS, 1600);
+        stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.LOSS, 1600);
+        assertEquals(-2, stats.getStreak());
+
+        stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.DRAW, 1600);
+        stats.recordGame(PlayerStats.MODE_HARD, PlayerStats.WIN, 1600);
+        assertEquals(1, stats.getStreak());
+        assertEquals(3, stats.getLongestWinStreak());
+    }
+
+    @Test
+    public void rating_movesByExpectedScore() {
+        PlayerStats winner = new PlayerStats();
+        PlayerStats loser = new PlayerStats();
+        winner.recordGame(PlayerStats.MODE_MULTI_PLAYER, PlayerStats.WIN, loser.getRating());
+        loser.recordGame(PlayerStats.MODE_MULTI_PLAYER, PlayerStats.LOSS,
+                PlayerStats.INITIAL_RATING);
+
+        // Equal ratings put half of the 32 points at stake
+        assertEquals(PlayerStats.INITIAL_RATING + 16, winner.getRating());
+        assertEquals(PlayerStats.INITIAL_RATING - 16, loser.getRating());
+
+        // Beating a much weaker opponent gains less than beating a stronger one
+        PlayerStats easy = new PlayerStats();
+        PlayerStats hard = new PlayerStats();
+        easy.recordGame(PlayerStats.MODE_EASY, PlayerStats.WIN,
+                PlayerStats.computerRating(PlayerStats.MODE_EASY));
+        hard.recordGame(PlayerStats.MODE_HARD, PlayerStats.WIN,
+                PlayerStats.computerRating(PlayerStats.MODE_HARD));
+        assertTrue(easy.getRating() - PlayerStats.INITIAL_RATING
+                < hard.getRating() - PlayerStats.INITIAL_RATING);
+    }
+
+    @Test
+    public void encode_roundTrips() {
+        PlayerStats stats = new PlayerStats();
+        stats.recordGame(PlayerStats.MODE_EASY, PlayerStats.WIN, 1000);
+        stats.recordGame(PlayerStats.MODE_MULTI_PLAYER, PlayerStats.WIN, 1300);
+        stats.recordGame(PlayerStats.MODE_ULTIMATE, PlayerStats.LOSS, 1500);
+
+        PlayerStats decoded = PlayerStats.decode(stats.encode());
+
+        assertEquals(stats.encode(), decoded.encode());
+        assertEquals(stats.getGamesPlayed(), decoded.getGamesPlayed());
+        assertEquals(stats.getRating(), decoded.getRating());
+        assertEquals(-1, decoded.getStreak());
+        assertEquals(2, decoded.getLongestWinStreak());
+    }
+
+    @Test
+    public void decode_startsOverOnBadData() {
+        assertEquals(0, PlayerStats.decode(null).getGamesPlayed());
+        assertEquals(0, PlayerStats.decode("1,2,3").getGamesPlayed());
+        assertEquals(PlayerStats.INITIAL_RATING,
+                PlayerStats.decode("1,x,0,0,0,0,0,0,0,0,0,0,0,0,0,1200").getRating());
+    }
+}
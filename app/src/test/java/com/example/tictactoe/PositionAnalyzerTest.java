@@ -0,0 +1,67 @@
+package com.example.tictactoe;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the batch analysis API
+ */
+public class PositionAnalyzerTest {
+    private PositionAnalyzer analyzer;
+
+    @Before
+    public void setUp() {
+        analyzer = new PositionAnalyzer(3, 3, GameEngine.UNLIMITED_DEPTH, 2);
+    }
+
+    @After
+    public void tearDown() {
+        analyzer.shutdown();
+    }
+
+    @Test
+    public void emptyBoard_isDraw() throws InterruptedException {
+        AnalysisResult result = analyzer.analyze(new String[]{"........."})[0];
+
+        assertEquals(0, result.getScore());
+        assertEquals(9, result.getPrincipalVariation().length);
+    }
+
+    @Test
+    public void winningMove_isFound() throws InterruptedException {
+        // X to move, completes the top row
+        AnalysisResult result = analyzer.analyze(new String[]{"XX.OO...."})[0];
+
+        assertEquals(2, result.getBestMove());
+        assertEquals(GameEngine.WIN_SCORE - 5, result.getScore());
+    }
+
+    @Test
+    public void symmetricPositions_mapMovesBack() throws InterruptedException {
+        // The same position rotated by 90 degrees, X must block O in each
+        List<AnalysisResult> results = analyzer.analyze(Arrays.asList("XO..O...X", "..X.OOX.."));
+
+        assertEquals(7, results.get(0).getBestMove());
+        assertEquals(3, results.get(1).getBestMove());
+        assertEquals(results.get(0).getScore(), results.get(1).getScore());
+    }
+
+    @Test
+    public void finishedGame_hasNoMove() throws InterruptedException {
+        AnalysisResult result = analyzer.analyze(new String[]{"XXXOO...."})[0];
+
+        assertEquals(GameEngine.NO_MOVE, result.getBestMove());
+        assertEquals(GameEngine.WIN_SCORE - 5, result.getScore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPosition_isRejected() throws InterruptedException {
+        analyzer.analyze(new String[]{"XXX......"});
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the proof-number solver
+ */
+public class ProofNumberSearchTest {
+    private static final int GOMOKU_SIZE = 15;
+    private static final long NODE_BUDGET = 1000000;
+    private static final long SMALL_BUDGET = 3;
+
+    private static final SearchControl STOP = new SearchControl() {
+        @Override
+        public boolean shouldStop() {
+            return true;
+        }
+    };
+
+    @Test
+    public void emptyBoard_isNotAForcedWin() {
+        GameEngine engine = new GameEngine(3);
+        ProofNumberSearch solver = new ProofNumberSearch(engine, 16);
+
+        assertEquals(ProofNumberSearch.DISPROVEN, solver.prove(NODE_BUDGET));
+        assertEquals(0, engine.getMoveCount());
+    }
+
+    @Test
+    public void fork_isProven() {
+        GameEngine engine = new GameEngine(3);
+        ProofNumberSearch solver = new ProofNumberSearch(engine, 16);
+
+        // X in the corner and center, O on the edge and blocking the diagonal. X to move forks
+        // with the left edge or the bottom-left corner
+        playAll(engine, 0, 1, 4, 8);
+
+        assertEquals(ProofNumberSearch.PROVEN, solver.prove(NODE_BUDGET));
+        int move = solver.getWinningMove();
+        assertTrue(move == 3 || move == 6);
+    }
+
+    @Test
+    public void openThree_isProvenOnGomokuBoard() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+        ProofNumberSearch solver = new ProofNumberSearch(engine, 18);
+
+        // X to move with an open three on row 7, O's moves are far away
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+
+        assertEquals(ProofNumberSearch.PROVEN, solver.prove(NODE_BUDGET));
+        int move = solver.getWinningMove();
+        assertTrue(move == cell(7, 4) || move == cell(7, 8));
+    }
+
+    @Test
+    public void defender_triesEveryEmptyCell() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+        int[] moves = new int[engine.getCellCount()];
+
+        // The attacker's moves stay near the stones, the defender's cover the whole board so a
+        // proof holds against far defences too
+        int empty = engine.getCellCount() - engine.getMoveCount();
+        assertTrue(engine.generateMoves(moves, true) < empty);
+        assertEquals(empty, engine.generateMoves(moves, false));
+    }
+
+    @Test
+    public void depthLimitedSearch_playsProvenWin() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+        int move = engine.findBestMove(GameEngine.PLAYER_X, 1);
+
+        assertTrue(move == cell(7, 4) || move == cell(7, 8));
+    }
+
+    @Test
+    public void unfinishedProof_isContinuedByNextCall() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+        ProofNumberSearch solver = new ProofNumberSearch(engine, 18);
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+
+        // Each call only gets a sliver of the budget the proof needs
+        int result = ProofNumberSearch.UNKNOWN;
+        int calls = 0;
+        while (result == ProofNumberSearch.UNKNOWN && calls < 1000) {
+            result = solver.prove(SMALL_BUDGET);
+            calls++;
+        }
+
+        assertEquals(ProofNumberSearch.PROVEN, result);
+        assertTrue(calls > 1);
+        int move = solver.getWinningMove();
+        assertTrue(move == cell(7, 4) || move == cell(7, 8));
+    }
+
+    @Test
+    public void searchControl_stopsProof() {
+        GameEngine engine = new GameEngine(GOMOKU_SIZE, 5);
+        ProofNumberSearch solver = new ProofNumberSearch(engine, 16);
+        playAll(engine, cell(7, 5), cell(0, 0), cell(7, 6), cell(0, 14), cell(7, 7),
+                cell(14, 14));
+        long hash = engine.getHash();
+
+        assertEquals(ProofNumberSearch.UNKNOWN, solver.prove(NODE_BUDGET, STOP));
+        assertTrue(solver.isAborted());
+        assertTrue(solver.getNodeCount() < NODE_BUDGET);
+        assertEquals(hash, engine.getHash());
+
+        // The engine passes its own control on and reports the abort
+        engine.setSearchControl(STOP);
+        assertEquals(GameEngine.NO_MOVE, engine.findBestMove(GameEngine.PLAYER_X, 1));
+        assertTrue(engine.isAborted());
+    }
+
+    private static int cell(int row, int col) {
+        return row * GOMOKU_SIZE + col;
+    }
+
+    private static void playAll(GameEngine engine, int... cells) {
+        for (int cell : cells)
+            engine.play(cell);
+    }
+}
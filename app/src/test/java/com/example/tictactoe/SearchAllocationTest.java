@@ -0,0 +1,71 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test which checks that a full GameEngine search doesn't allocate on the heap. Uses
+ * the HotSpot per-thread allocation counter, so it must run on the development machine's JVM.
+ */
+public class SearchAllocationTest {
+    // Rounds of searches the JIT needs before the search loop is compiled and stops allocating
+    // its interpreter frames and profiling data
+    private static final int WARM_UP_ROUNDS = 200;
+    // Rounds measured, a few hundred thousand nodes so a single allocation per node would show
+    private static final int MEASURED_ROUNDS = 50;
+    // The search itself may not allocate at all
+    private static final long ALLOWED_BYTES = 0;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void fullSearch_doesNotAllocate() {
+        GameEngine engine = new GameEngine(3);
+
+        // Let the JIT compile the search before measuring
+        runSearches(engine, WARM_UP_ROUNDS);
+
+        // Reading the counter allocates a few bytes itself, which are taken off the total
+        long first = allocatedBytes();
+        long counterOverhead = allocatedBytes() - first;
+
+        long before = allocatedBytes();
+        long nodes = runSearches(engine, MEASURED_ROUNDS);
+        long allocated = allocatedBytes() - before - counterOverhead;
+
+        assertTrue("Search visited no nodes", nodes > 0);
+        assertEquals("Bytes allocated by " + nodes + " nodes, counter overhead "
+                + counterOverhead, ALLOWED_BYTES, allocated);
+    }
+
+    /**
+     * Searches the empty board and a few openings for both players with an empty table each time
+     *
+     * @return Total number of nodes visited
+     */
+    private long runSearches(GameEngine engine, int rounds) {
+        long nodes = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            for (int opening = 0; opening < engine.getCellCount(); opening++) {
+                engine.reset();
+                engine.clearTable();
+                engine.play(opening);
+                engine.search(GameEngine.UNLIMITED_DEPTH);
+                nodes += engine.getNodeCount();
+
+                engine.findBestMove(GameEngine.PLAYER_X, GameEngine.UNLIMITED_DEPTH);
+                nodes += engine.getNodeCount();
+            }
+        }
+        return nodes;
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tictactoe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Ultimate Tic Tac Toe engine
+ */
+public class UltimateEngineTest {
+    private static final int AI_DEPTH = 6;
+    private static final long AI_NODE_BUDGET = 200000;
+
+    @Test
+    public void winTable_matchesLines() {
+        assertTrue(UltimateEngine.isWin(0x007));
+        assertTrue(UltimateEngine.isWin(0x054 | 0x001));
+        assertFalse(UltimateEngine.isWin(0x0AA));
+        assertFalse(UltimateEngine.isWin(0));
+    }
+
+    @Test
+    public void move_sendsOpponentToMatchingBoard() {
+        UltimateEngine engine = new UltimateEngine();
+        int[] moves = new int[UltimateEngine.CELL_COUNT];
+
+        assertEquals(UltimateEngine.CELL_COUNT, engine.generateMoves(moves));
+
+        // Center cell of the top-left sub-board sends O to the center sub-board
+        engine.play(4);
+        assertEquals(4, engine.getActiveBoard());
+        assertEquals(9, engine.generateMoves(moves));
+
+        for (int i = 0; i < 9; i++)
+            assertEquals(4, moves[i] / 9);
+    }
+
+    @Test
+    public void randomGames_undoRestoresEveryPosition() {
+        UltimateEngine engine = new UltimateEngine();
+        Random random = new Random(7);
+        int[] moves = new int[UltimateEngine.CELL_COUNT];
+        int[] played = new int[UltimateEngine.CELL_COUNT];
+
+        for (int game = 0; game < 200; game++) {
+            int count = 0;
+            engine.reset();
+
+            while (!engine.isGameOver()) {
+                int moveCount = engine.generateMoves(moves);
+                int move = moves[random.nextInt(moveCount)];
+
+                assertTrue(engine.isLegal(move));
+                engine.play(move);
+                played[count++] = move;
+            }
+
+            while (count > 0)
+                engine.undo(played[--count]);
+
+            assertEquals(0, engine.getMoveCount());
+            assertEquals(UltimateEngine.ANY_BOARD, engine.getActiveBoard());
+            assertEquals(UltimateEngine.CELL_COUNT, engine.generateMoves(moves));
+        }
+    }
+
+    @Test
+    public void ai_beatsRandomPlayer() {
+        UltimateEngine engine = new UltimateEngine();
+        Random random = new Random(11);
+        int[] moves = new int[UltimateEngine.CELL_COUNT];
+        int wins = 0;
+
+        for (int game = 0; game < 10; game++) {
+            engine.reset();
+
+            while (!engine.isGameOver()) {
+                if (engine.sideToMove() == GameEngine.PLAYER_O) {
+                    engine.play(engine.findBestMove(AI_DEPTH, AI_NODE_BUDGET));
+                } else {
+                    int moveCount = engine.generateMoves(moves);
+                    engine.play(moves[random.nextInt(moveCount)]);
+                }
+            }
+
+            if (engine.getWinner() == GameEngine.PLAYER_O)
+                wins++;
+        }
+        assertEquals(10, wins);
+    }
+}